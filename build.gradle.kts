@@ -2,6 +2,7 @@ plugins {
     java
     id("maven-publish")
     id("co.uzzu.dotenv.gradle") version "4.0.0"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "ca.kaxx"
@@ -23,6 +24,39 @@ dependencies {
 
     compileOnly("org.projectlombok:lombok:1.18.32")
     annotationProcessor("org.projectlombok:lombok:1.18.32")
+
+    jmh("org.spigotmc:spigot:1.8.8-R0.1-SNAPSHOT")
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    profilers.add("gc")
+    resultFormat.set("JSON")
+}
+
+val checkAllocations by tasks.registering(JavaExec::class) {
+    group = "verification"
+    description = "Fails if a steady-state update tick allocates."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("ca.kaxx.board.UpdateAllocationCheck")
+}
+
+val checkLeaks by tasks.registering(JavaExec::class) {
+    group = "verification"
+    description = "Fails if a pooled packet buffer leaks under paranoid leak detection."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("ca.kaxx.board.PacketLeakCheck")
+}
+
+val simulate by tasks.registering(JavaExec::class) {
+    group = "verification"
+    description = "Simulates thousands of players without a server, e.g. --args=\"--players 2000 --ticks 1200\"."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("ca.kaxx.board.LoadSimulator")
+}
+
+tasks.check {
+    dependsOn(checkAllocations, checkLeaks)
 }
 
 tasks.jar {
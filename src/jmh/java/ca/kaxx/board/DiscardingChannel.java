@@ -0,0 +1,34 @@
+package ca.kaxx.board;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * Creates Netty channels which release every message written to them, for driving the raw transport without a server.
+ */
+public final class DiscardingChannel {
+
+    private DiscardingChannel() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    /**
+     * Creates a channel whose event loop is the calling thread, discarding every message written to it.
+     *
+     * @return the created channel
+     */
+    public static Channel create() {
+        return new EmbeddedChannel(new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise) {
+                ReferenceCountUtil.release(msg);
+                promise.trySuccess();
+            }
+        });
+    }
+
+}
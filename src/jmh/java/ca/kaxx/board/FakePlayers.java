@@ -0,0 +1,82 @@
+package ca.kaxx.board;
+
+import org.bukkit.entity.Player;
+
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+
+/**
+ * Creates Player stand-ins which only answer their identity, for driving the handler without a server.
+ */
+public final class FakePlayers {
+
+    private FakePlayers() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    /**
+     * Creates a fake online player.
+     *
+     * @param id the identifier of the player, used to derive its UUID and name
+     * @return the created player
+     */
+    public static Player create(final int id) {
+        final UUID uniqueId = new UUID(0L, id);
+        final String name = "Player" + id;
+
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getUniqueId" -> uniqueId;
+                    case "getName", "getDisplayName", "toString" -> name;
+                    case "isOnline", "isValid" -> true;
+                    case "hashCode" -> uniqueId.hashCode();
+                    case "equals" -> proxy == args[0];
+                    default -> defaultValue(method.getReturnType());
+                });
+    }
+
+    /**
+     * Creates a handler which is neither registered nor scheduled, populated with fake players.
+     *
+     * @param players the number of players to register
+     * @return the created handler
+     */
+    public static KaxxScoreboardHandler createHandler(final int players) {
+        final KaxxScoreboardHandler handler = new KaxxScoreboardHandler();
+
+        for (int i = 0; i < players; i++) {
+            handler.createScoreboard(create(i), RecordingPlayerConnection.create());
+        }
+
+        return handler;
+    }
+
+    private static Object defaultValue(final Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == float.class) {
+            return 0F;
+        }
+        if (type == double.class) {
+            return 0D;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+
+}
@@ -0,0 +1,109 @@
+package ca.kaxx.board;
+
+import ca.kaxx.board.cache.ScoreboardLineCache;
+import ca.kaxx.board.transport.NmsScoreboardTransport;
+import ca.kaxx.board.transport.RawScoreboardTransport;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the line operations of a single {@link KaxxScoreboard}, sending NMS packets to a
+ * {@link RecordingPlayerConnection} or encoded frames to a {@link DiscardingChannel}.
+ * The "changed" benchmarks alternate between two contents so that every call sends packets,
+ * the "unchanged" ones only hit the diff.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KaxxScoreboardBenchmark {
+
+    private static final String[] LINES = {"§7Kills: §a1234 §8| §7Deaths: §c12", "§7Kills: §a1235 §8| §7Deaths: §c12"};
+    private static final String[] RAW_LINES = {"&7Kills: &a1234 &8| &7Deaths: &c12", "&7Kills: &a1235 &8| &7Deaths: &c12"};
+    private static final String[] VALUES = {"§a1234", "§a1235"};
+    private static final String COLORED = "§7Kills§8: §a§l12§o34";
+
+    @Param({"nms", "raw"})
+    private String transport;
+
+    private RecordingPlayerConnection connection;
+    private KaxxScoreboard scoreboard;
+    private ScoreboardLine[] splitLines;
+    private ScoreboardLineCache lineCache;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.connection = RecordingPlayerConnection.create();
+        this.scoreboard = new KaxxScoreboard(this.transport.equals("raw")
+                ? new RawScoreboardTransport(DiscardingChannel.create())
+                : new NmsScoreboardTransport(this.connection));
+        this.scoreboard.setTitle("§6§lKaxxBoard");
+        this.scoreboard.setLine(0, LINES[0]);
+        this.scoreboard.createLine(1, "§7Kills: ");
+        this.scoreboard.setValue(1, VALUES[0]);
+
+        this.splitLines = new ScoreboardLine[]{ScoreboardLine.split(LINES[0]), ScoreboardLine.split(LINES[1])};
+
+        this.lineCache = new ScoreboardLineCache();
+        this.lineCache.get(RAW_LINES[0]);
+        this.lineCache.get(RAW_LINES[1]);
+    }
+
+    @Benchmark
+    public void setLineChanged() {
+        this.scoreboard.setLine(0, LINES[++this.counter & 1]);
+    }
+
+    @Benchmark
+    public void setLineUnchanged() {
+        this.scoreboard.setLine(0, LINES[0]);
+    }
+
+    @Benchmark
+    public void setLinePreSplitChanged() {
+        this.scoreboard.setLine(0, this.splitLines[++this.counter & 1]);
+    }
+
+    @Benchmark
+    public void setValueChanged() {
+        this.scoreboard.setValue(1, VALUES[++this.counter & 1]);
+    }
+
+    @Benchmark
+    public void setValueUnchanged() {
+        this.scoreboard.setValue(1, VALUES[0]);
+    }
+
+    @Benchmark
+    public void createLineAndSetValue() {
+        final int i = ++this.counter & 1;
+
+        this.scoreboard.createLine(2, i == 0 ? "§7Coins: " : "§7Gems: ");
+        this.scoreboard.setValue(2, VALUES[i]);
+    }
+
+    @Benchmark
+    public String getLastColors() {
+        return ScoreboardLine.getLastColors(COLORED, 16, 0);
+    }
+
+    @Benchmark
+    public ScoreboardLine split() {
+        return ScoreboardLine.split(LINES[++this.counter & 1]);
+    }
+
+    @Benchmark
+    public ScoreboardLine lineCacheHit() {
+        return this.lineCache.get(RAW_LINES[++this.counter & 1]);
+    }
+
+    @TearDown(Level.Iteration)
+    public void resetConnection() {
+        this.connection.reset();
+    }
+
+}
@@ -0,0 +1,96 @@
+package ca.kaxx.board;
+
+import ca.kaxx.board.adapter.KaxxScoreboardAdapter;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one full update of every board, from 1 to N update threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KaxxScoreboardUpdateBenchmark {
+
+    @Param({"500"})
+    private int players;
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    /**
+     * The CPU work done by the adapter for each player, in Blackhole tokens.
+     */
+    @Param({"0", "2000"})
+    private int adapterWork;
+
+    private KaxxScoreboardHandler handler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.handler = FakePlayers.createHandler(this.players);
+        this.handler.setAdapter(new WorkingAdapter(this.adapterWork));
+        this.handler.setRefreshRate(1);
+
+        if (this.threads > 1) {
+            this.handler.enableParallelUpdates(this.threads);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.handler.disableParallelUpdates();
+    }
+
+    @Benchmark
+    public void update() {
+        this.handler.getUpdateTask().run();
+    }
+
+    /**
+     * An adapter doing some CPU work per player and returning lines of which one changes on every call.
+     * The calls are counted per update thread, so that the threads do not contend on a shared counter.
+     */
+    private static final class WorkingAdapter implements KaxxScoreboardAdapter {
+
+        private final int work;
+        private final ThreadLocal<long[]> calls = ThreadLocal.withInitial(() -> new long[1]);
+
+        private WorkingAdapter(final int work) {
+            this.work = work;
+        }
+
+        @Override
+        public String getTitle(final @Nonnull Player player) {
+            return "&6&lKaxxBoard";
+        }
+
+        @Override
+        public Collection<String> getLines(final @Nonnull Player player) {
+            if (this.work > 0) {
+                Blackhole.consumeCPU(this.work);
+            }
+
+            return Arrays.asList(
+                    "&7&m----------------",
+                    "&7Player: &f" + player.getName(),
+                    "&7Kills: &a" + (++this.calls.get()[0] % 1000),
+                    "&7Deaths: &c12",
+                    "",
+                    "&ekaxx.ca",
+                    "&7&m---------------- "
+            );
+        }
+
+    }
+
+}
@@ -0,0 +1,419 @@
+package ca.kaxx.board;
+
+import ca.kaxx.board.adapter.KaxxScoreboardAdapter;
+import ca.kaxx.board.metrics.ScoreboardMetrics;
+import ca.kaxx.board.metrics.ScoreboardPacketType;
+import ca.kaxx.board.transport.NmsScoreboardTransport;
+import ca.kaxx.board.transport.RawScoreboardTransport;
+import ca.kaxx.board.transport.ScoreboardTransport;
+import org.bukkit.entity.Player;
+
+import javax.annotation.Nonnull;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Drives a handler with thousands of fake players for a number of ticks, without a server nor clients,
+ * and reports the packets, bytes, tick time and allocations of the update task.
+ * <p>
+ * It is run by {@code ./gradlew simulate}, for example:
+ * <pre>
+ * ./gradlew simulate --args="--players 2000 --ticks 1200 --scenario scrolling --transport raw"
+ * </pre>
+ * Options:
+ * <ul>
+ *     <li>{@code --players}: the number of fake players, 2000 by default</li>
+ *     <li>{@code --ticks}: the number of measured ticks, 1200 by default</li>
+ *     <li>{@code --warmup}: the number of ticks run before measuring, 600 by default</li>
+ *     <li>{@code --refresh-rate}: the refresh rate of the handler in ticks, 1 by default</li>
+ *     <li>{@code --parallelism}: the number of update shards, 1 (no parallel updates) by default</li>
+ *     <li>{@code --scenario}: {@code static}, {@code counters} or {@code scrolling}, {@code counters} by default</li>
+ *     <li>{@code --transport}: {@code nms} or {@code raw}, {@code nms} by default</li>
+ *     <li>{@code --max-bytes-per-second}: the bytes each scoreboard may send per second, unlimited by default</li>
+ *     <li>{@code --max-tick-micros}, {@code --max-bytes-per-tick}, {@code --max-alloc-per-player}: limits on the
+ *     99th percentile tick time, the bytes sent per tick and the bytes allocated per player and tick, which make
+ *     the simulator exit with status 1 when exceeded, so that it can be used as a regression gate</li>
+ * </ul>
+ * The packets are built and encoded as on a server, but never written to a socket: the NMS transport sends them to
+ * {@link RecordingPlayerConnection}s and the raw transport writes them to {@link DiscardingChannel}s.
+ */
+public final class LoadSimulator {
+
+    private LoadSimulator() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    public static void main(final String[] args) {
+        final Options options = Options.parse(args);
+        final KaxxScoreboardHandler handler = new KaxxScoreboardHandler();
+        final ScenarioAdapter adapter = new ScenarioAdapter(options.scenario);
+
+        for (int i = 0; i < options.players; i++) {
+            final RecordingPlayerConnection connection = RecordingPlayerConnection.create();
+            final ScoreboardTransport transport = options.transport.equals("raw")
+                    ? new RawScoreboardTransport(DiscardingChannel.create())
+                    : new NmsScoreboardTransport(connection);
+
+            handler.createScoreboard(FakePlayers.create(i), connection, transport);
+        }
+
+        handler.setAdapter(adapter);
+        handler.setRefreshRate(options.refreshRate);
+        handler.setMaxBytesPerSecond(options.maxBytesPerSecond);
+
+        if (options.parallelism > 1) {
+            handler.enableParallelUpdates(options.parallelism);
+        }
+
+        for (int i = 0; i < options.warmup; i++) {
+            adapter.tick();
+            handler.getUpdateTask().run();
+        }
+
+        final ScoreboardMetrics metrics = handler.getMetrics();
+        final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long[] tickNanos = new long[options.ticks];
+
+        metrics.reset();
+
+        final long allocatedBefore = allocatedBytes(threads);
+
+        for (int i = 0; i < options.ticks; i++) {
+            adapter.tick();
+
+            final long start = System.nanoTime();
+
+            handler.getUpdateTask().run();
+
+            tickNanos[i] = System.nanoTime() - start;
+        }
+
+        final long allocated = allocatedBytes(threads) - allocatedBefore;
+        final Report report = new Report(options, metrics, tickNanos, allocated);
+
+        handler.cleanup();
+        report.print();
+
+        if (!report.check(options)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Returns the bytes allocated so far by every live thread.
+     * The update workers are never stopped during a simulation, so none of their allocations are lost.
+     *
+     * @param threads the thread management bean
+     * @return the allocated bytes
+     */
+    private static long allocatedBytes(final com.sun.management.ThreadMXBean threads) {
+        long total = 0;
+
+        for (final long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (allocated > 0) {
+                total += allocated;
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * The options of a simulation.
+     */
+    private static final class Options {
+
+        private int players = 2000;
+
+        private int ticks = 1200;
+
+        private int warmup = 600;
+
+        private long refreshRate = 1;
+
+        private int parallelism = 1;
+
+        private Scenario scenario = Scenario.COUNTERS;
+
+        private String transport = "nms";
+
+        private long maxBytesPerSecond;
+
+        private double maxTickMicros = -1;
+
+        private double maxBytesPerTick = -1;
+
+        private double maxAllocPerPlayer = -1;
+
+        /**
+         * Parses the options from the arguments of the simulator.
+         *
+         * @param args the arguments, as {@code --name value} pairs
+         * @return the parsed options
+         * @throws IllegalArgumentException if an option is unknown or has no value
+         */
+        private static Options parse(final String[] args) {
+            final Options options = new Options();
+
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Option " + args[i] + " does not have a value !");
+                }
+
+                final String value = args[i + 1];
+
+                switch (args[i]) {
+                    case "--players" -> options.players = Integer.parseInt(value);
+                    case "--ticks" -> options.ticks = Integer.parseInt(value);
+                    case "--warmup" -> options.warmup = Integer.parseInt(value);
+                    case "--refresh-rate" -> options.refreshRate = Long.parseLong(value);
+                    case "--parallelism" -> options.parallelism = Integer.parseInt(value);
+                    case "--scenario" -> options.scenario = Scenario.valueOf(value.toUpperCase(Locale.ROOT));
+                    case "--transport" -> options.transport = value;
+                    case "--max-bytes-per-second" -> options.maxBytesPerSecond = Long.parseLong(value);
+                    case "--max-tick-micros" -> options.maxTickMicros = Double.parseDouble(value);
+                    case "--max-bytes-per-tick" -> options.maxBytesPerTick = Double.parseDouble(value);
+                    case "--max-alloc-per-player" -> options.maxAllocPerPlayer = Double.parseDouble(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i] + " !");
+                }
+            }
+
+            if (!options.transport.equals("nms") && !options.transport.equals("raw")) {
+                throw new IllegalArgumentException("Transport must be nms or raw !");
+            }
+
+            if (options.players <= 0 || options.ticks <= 0 || options.warmup < 0 || options.refreshRate <= 0
+                    || options.parallelism <= 0) {
+                throw new IllegalArgumentException("Players, ticks, refresh rate and parallelism must be positive !");
+            }
+
+            return options;
+        }
+
+    }
+
+    /**
+     * The figures of a simulation.
+     */
+    private static final class Report {
+
+        private final Options options;
+
+        private final double packetsPerTick;
+
+        private final double bytesPerTick;
+
+        private final double[] packetsPerTickByType;
+
+        private final long[] sortedTickNanos;
+
+        private final double meanTickNanos;
+
+        private final double allocPerPlayer;
+
+        private Report(final Options options, final ScoreboardMetrics metrics, final long[] tickNanos,
+                       final long allocated) {
+            this.options = options;
+
+            final ScoreboardPacketType[] types = ScoreboardPacketType.values();
+
+            this.packetsPerTickByType = new double[types.length];
+
+            long packets = 0;
+            long bytes = 0;
+
+            for (final ScoreboardPacketType type : types) {
+                final long count = metrics.getPackets(type);
+
+                this.packetsPerTickByType[type.ordinal()] = (double) count / options.ticks;
+
+                packets += count;
+                bytes += metrics.getBytes(type);
+            }
+
+            this.packetsPerTick = (double) packets / options.ticks;
+            this.bytesPerTick = (double) bytes / options.ticks;
+
+            this.sortedTickNanos = tickNanos.clone();
+            Arrays.sort(this.sortedTickNanos);
+            this.meanTickNanos = (double) Arrays.stream(tickNanos).sum() / tickNanos.length;
+
+            this.allocPerPlayer = (double) allocated / options.ticks / options.players;
+        }
+
+        private long percentile(final double percentile) {
+            final int index = (int) Math.ceil(percentile / 100 * this.sortedTickNanos.length) - 1;
+
+            return this.sortedTickNanos[Math.max(0, Math.min(index, this.sortedTickNanos.length - 1))];
+        }
+
+        private void print() {
+            final StringBuilder types = new StringBuilder();
+
+            for (final ScoreboardPacketType type : ScoreboardPacketType.values()) {
+                final double count = this.packetsPerTickByType[type.ordinal()];
+
+                if (count > 0) {
+                    types.append(types.length() == 0 ? "" : ", ")
+                            .append(type.name().toLowerCase(Locale.ROOT)).append(' ').append(format(count));
+                }
+            }
+
+            System.out.println("Simulated " + this.options.players + " players for " + this.options.ticks
+                    + " ticks (scenario " + this.options.scenario.name().toLowerCase(Locale.ROOT) + ", transport "
+                    + this.options.transport + ", refresh rate " + this.options.refreshRate + ", parallelism "
+                    + this.options.parallelism + ")");
+            System.out.println("Packets per tick:  " + format(this.packetsPerTick)
+                    + (types.length() == 0 ? "" : " (" + types + ")"));
+            System.out.println("Bytes per tick:    " + format(this.bytesPerTick)
+                    + " (before compression and framing)");
+            System.out.println("Tick time:         mean " + micros(this.meanTickNanos) + ", p50 "
+                    + micros(percentile(50)) + ", p99 " + micros(percentile(99)) + ", max "
+                    + micros(percentile(100)));
+            System.out.println("Allocations:       " + format(this.allocPerPlayer) + " B per player per tick ("
+                    + format(this.allocPerPlayer * this.options.players) + " B per tick)");
+        }
+
+        /**
+         * Checks the figures against the limits of the options, reporting the ones which are exceeded.
+         *
+         * @param options the options of the simulation
+         * @return true if no limit is exceeded, false otherwise
+         */
+        private boolean check(final Options options) {
+            boolean passed = true;
+
+            if (options.maxTickMicros >= 0 && percentile(99) / 1000D > options.maxTickMicros) {
+                System.err.println("The 99th percentile tick time exceeds " + options.maxTickMicros + "µs");
+                passed = false;
+            }
+
+            if (options.maxBytesPerTick >= 0 && this.bytesPerTick > options.maxBytesPerTick) {
+                System.err.println("The bytes sent per tick exceed " + options.maxBytesPerTick);
+                passed = false;
+            }
+
+            if (options.maxAllocPerPlayer >= 0 && this.allocPerPlayer > options.maxAllocPerPlayer) {
+                System.err.println("The bytes allocated per player and tick exceed " + options.maxAllocPerPlayer);
+                passed = false;
+            }
+
+            return passed;
+        }
+
+        private static String format(final double value) {
+            return String.format(Locale.ROOT, "%.1f", value);
+        }
+
+        private static String micros(final double nanos) {
+            return String.format(Locale.ROOT, "%.1fµs", nanos / 1000D);
+        }
+
+    }
+
+    /**
+     * The kinds of boards the fake players display.
+     */
+    private enum Scenario {
+
+        /**
+         * The same lines on every refresh, which only costs the rendering.
+         */
+        STATIC,
+
+        /**
+         * A few lines whose values change every second, at a different tick for each player.
+         */
+        COUNTERS,
+
+        /**
+         * A shared log receiving a new line every second, scrolling every other line down.
+         */
+        SCROLLING
+
+    }
+
+    /**
+     * An adapter rendering the board of a scenario.
+     */
+    private static final class ScenarioAdapter implements KaxxScoreboardAdapter {
+
+        private static final List<String> STATIC_LINES = List.of(
+                "&7&m----------------",
+                "&7Rank: &fMember",
+                "&7Kills: &a12",
+                "&7Deaths: &c12",
+                "",
+                "&ekaxx.ca",
+                "&7&m---------------- "
+        );
+
+        private static final int LOG_SIZE = 12;
+
+        private final Scenario scenario;
+
+        /**
+         * The current tick, advanced by the simulator between two updates.
+         */
+        private volatile long tick;
+
+        /**
+         * The lines of the shared log, replaced by a new list whenever a line is added.
+         */
+        private volatile List<String> log;
+
+        private ScenarioAdapter(final Scenario scenario) {
+            this.scenario = scenario;
+            this.log = List.of();
+        }
+
+        /**
+         * Advances the scenario by one tick.
+         */
+        private void tick() {
+            final long tick = ++this.tick;
+
+            if (this.scenario == Scenario.SCROLLING && tick % 20 == 0) {
+                final List<String> log = new ArrayList<>(LOG_SIZE);
+
+                log.add("&7[" + (tick / 20) + "] &fPlayer" + (tick % 97) + " joined");
+                log.addAll(this.log.subList(0, Math.min(this.log.size(), LOG_SIZE - 1)));
+
+                this.log = List.copyOf(log);
+            }
+        }
+
+        @Override
+        public String getTitle(final @Nonnull Player player) {
+            return "&6&lKaxxBoard";
+        }
+
+        @Override
+        public Collection<String> getLines(final @Nonnull Player player) {
+            return switch (this.scenario) {
+                case STATIC -> STATIC_LINES;
+                case SCROLLING -> this.log;
+                case COUNTERS -> {
+                    final long seconds = (this.tick + player.getUniqueId().getLeastSignificantBits()) / 20;
+
+                    yield List.of(
+                            "&7&m----------------",
+                            "&7Rank: &fMember",
+                            "&7Coins: &e" + seconds * 3,
+                            "&7Online: &f" + seconds + "s",
+                            "",
+                            "&ekaxx.ca",
+                            "&7&m---------------- "
+                    );
+                }
+            };
+        }
+
+    }
+
+}
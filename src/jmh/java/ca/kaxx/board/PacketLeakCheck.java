@@ -0,0 +1,320 @@
+package ca.kaxx.board;
+
+import ca.kaxx.board.adapter.KaxxScoreboardAdapter;
+import ca.kaxx.board.adapter.KaxxScoreboardGroupAdapter;
+import ca.kaxx.board.packets.ScoreboardAction;
+import ca.kaxx.board.packets.ScoreboardDisplayObjectivePacket;
+import ca.kaxx.board.packets.ScoreboardObjectivePacket;
+import ca.kaxx.board.packets.ScoreboardScorePacket;
+import ca.kaxx.board.packets.ScoreboardTeamPacket;
+import ca.kaxx.board.transport.RawScoreboardTransport;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.handler.codec.EncoderException;
+import io.netty.util.ResourceLeakDetector;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+import io.netty.util.internal.logging.JdkLoggerFactory;
+import net.minecraft.server.v1_8_R3.EnumChatFormat;
+import net.minecraft.server.v1_8_R3.IScoreboardCriteria;
+import net.minecraft.server.v1_8_R3.PacketPlayOutScoreboardScore;
+import net.minecraft.server.v1_8_R3.ScoreboardTeamBase;
+import org.bukkit.entity.Player;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Fails if a pooled buffer is garbage-collected without having been released, under the paranoid leak detection of
+ * Netty, which tracks every buffer.
+ * <p>
+ * It runs the packet builders, whose pooled buffer is released when they are built or closed, including builders
+ * whose setter throws and builders which are never built, and the raw transport, whose frames are allocated from the
+ * pooled allocator of the channel, for boards of their own and for a group board whose frames are shared between its
+ * members. It is run by {@code ./gradlew checkLeaks}, itself part of {@code ./gradlew check}.
+ */
+public final class PacketLeakCheck {
+
+    private static final int ITERATIONS = 500;
+
+    private static final int PLAYERS = 20;
+
+    private static final int TICKS = 100;
+
+    /**
+     * A string too long to be encoded, which makes the setter writing it throw.
+     */
+    private static final String TOO_LONG = "x".repeat(Short.MAX_VALUE + 1);
+
+    /**
+     * The number of collections after which no leak can be reported anymore.
+     */
+    private static final int COLLECTIONS = 10;
+
+    /**
+     * The logger of the leak detector, kept so that its handler is not lost if the logger is collected.
+     */
+    private static Logger leakLogger;
+
+    private PacketLeakCheck() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    public static void main(final String[] args) throws InterruptedException {
+        // The recycler of the buffers keeps the last ones it handed out reachable, which would hide their leak
+        System.setProperty("io.netty.recycler.maxCapacity.default", "1");
+
+        // The leak detector resolves its logger once, when the first buffer class is loaded
+        InternalLoggerFactory.setDefaultFactory(new JdkLoggerFactory());
+        ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
+
+        final LeakCounter leaks = new LeakCounter();
+
+        leakLogger = Logger.getLogger(ResourceLeakDetector.class.getName());
+        leakLogger.addHandler(leaks);
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            buildPackets(i);
+            abandonPackets(i);
+        }
+
+        renderRaw();
+        renderGroup();
+
+        for (int i = 0; i < COLLECTIONS && leaks.count == 0; i++) {
+            System.gc();
+            Thread.sleep(100);
+
+            // The leaks are reported when a buffer is allocated, once their buffer has been collected
+            PooledByteBufAllocator.DEFAULT.heapBuffer(1).release();
+        }
+
+        System.out.println("Paranoid leak detection: " + leaks.count + " leaked buffers");
+
+        if (leaks.count > 0) {
+            System.err.println("Every pooled buffer must be released");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Builds one packet with each of the packet builders.
+     *
+     * @param i the iteration, varying the content of the packets
+     */
+    private static void buildPackets(final int i) {
+        final String text = "§7Line §a" + i;
+
+        try (final ScoreboardTeamPacket team = new ScoreboardTeamPacket()) {
+            team.setName(Integer.toString(i % 15));
+            team.setTeamAction(ScoreboardAction.UPDATE);
+            team.setCustomName(Integer.toString(i % 15));
+            team.setPrefix(text);
+            team.setSuffix(text);
+            team.setVisibility(ScoreboardTeamBase.EnumNameTagVisibility.ALWAYS);
+            team.setCollision();
+            team.setTeamColor(EnumChatFormat.RESET);
+            team.setEntry("§7");
+            team.build();
+        }
+
+        try (final ScoreboardScorePacket score = new ScoreboardScorePacket()) {
+            score.setName("§7");
+            score.setBoardAction(PacketPlayOutScoreboardScore.EnumScoreboardAction.CHANGE);
+            score.setObjectiveName("board");
+            score.setScore(i);
+            score.build();
+        }
+
+        try (final ScoreboardObjectivePacket objective = new ScoreboardObjectivePacket()) {
+            objective.setObjectiveName("board");
+            objective.setBoardAction(ScoreboardAction.UPDATE);
+            objective.setTitle(text);
+            objective.setDisplayType(IScoreboardCriteria.EnumScoreboardHealthDisplay.INTEGER);
+            objective.build();
+        }
+
+        try (final ScoreboardDisplayObjectivePacket display = new ScoreboardDisplayObjectivePacket()) {
+            display.setType(ScoreboardDisplayObjectivePacket.Type.SCORE);
+            display.setObjectiveName("board");
+            display.build();
+        }
+    }
+
+    /**
+     * Closes builders which are not built, either because a setter threw or because they were abandoned.
+     *
+     * @param i the iteration, varying the content of the packets
+     */
+    private static void abandonPackets(final int i) {
+        try (final ScoreboardTeamPacket team = new ScoreboardTeamPacket()) {
+            team.setName(Integer.toString(i % 15));
+            team.setTeamAction(ScoreboardAction.UPDATE);
+            team.setCustomName(TOO_LONG);
+            team.build();
+
+            throw new IllegalStateException("A string of " + TOO_LONG.length() + " characters was encoded");
+        } catch (final EncoderException expected) {
+            // The builder is closed before the exception is caught
+        }
+
+        try (final ScoreboardScorePacket score = new ScoreboardScorePacket()) {
+            score.setName("§7");
+            score.setBoardAction(PacketPlayOutScoreboardScore.EnumScoreboardAction.CHANGE);
+        }
+    }
+
+    /**
+     * Renders changing lines through the raw transport on channels allocating from the pooled allocator,
+     * then destroys the boards.
+     */
+    private static void renderRaw() {
+        final KaxxScoreboardHandler handler = new KaxxScoreboardHandler();
+
+        for (int i = 0; i < PLAYERS; i++) {
+            final Channel channel = DiscardingChannel.create();
+
+            channel.config().setAllocator(PooledByteBufAllocator.DEFAULT);
+
+            handler.createScoreboard(FakePlayers.create(i), RecordingPlayerConnection.create(),
+                    new RawScoreboardTransport(channel));
+        }
+
+        final ChangingAdapter adapter = new ChangingAdapter();
+
+        handler.setAdapter(adapter);
+        handler.setRefreshRate(1);
+
+        for (int i = 0; i < TICKS; i++) {
+            adapter.tick++;
+            handler.getUpdateTask().run();
+        }
+
+        handler.cleanup();
+    }
+
+    /**
+     * Renders changing lines on a group whose members use the raw transport, each frame being shared between the
+     * members, while half of them leave the group and join it again, then removes the group and destroys the boards.
+     */
+    private static void renderGroup() {
+        final KaxxScoreboardHandler handler = new KaxxScoreboardHandler();
+        final List<UUID> members = new ArrayList<>(PLAYERS);
+
+        for (int i = 0; i < PLAYERS; i++) {
+            final Channel channel = DiscardingChannel.create();
+            final Player player = FakePlayers.create(i);
+
+            channel.config().setAllocator(PooledByteBufAllocator.DEFAULT);
+
+            handler.createScoreboard(player, RecordingPlayerConnection.create(), new RawScoreboardTransport(channel));
+            members.add(player.getUniqueId());
+        }
+
+        final ChangingAdapter adapter = new ChangingAdapter();
+        final KaxxScoreboardGroup group = handler.createGroup("leak");
+
+        group.setAdapter(adapter);
+        handler.setAdapter(adapter);
+        handler.setRefreshRate(1);
+
+        for (final UUID member : members) {
+            handler.joinGroup(member, group);
+        }
+
+        for (int i = 0; i < TICKS; i++) {
+            adapter.tick++;
+
+            for (int member = 0; member < PLAYERS / 2; member++) {
+                if (i % 10 == 4) {
+                    handler.leaveGroup(members.get(member));
+                } else if (i % 10 == 7) {
+                    handler.joinGroup(members.get(member), group);
+                }
+            }
+
+            handler.getUpdateTask().run();
+        }
+
+        handler.removeGroup(group.getName());
+        handler.getUpdateTask().run();
+        handler.cleanup();
+    }
+
+    /**
+     * Counts the leaks reported by the leak detector.
+     */
+    private static final class LeakCounter extends Handler {
+
+        private volatile int count;
+
+        @Override
+        public void publish(final LogRecord record) {
+            if (record.getLevel().intValue() >= Level.SEVERE.intValue()
+                    && record.getMessage() != null && record.getMessage().contains("LEAK")) {
+                this.count++;
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+    /**
+     * An adapter whose title and lines change on every tick, and whose number of lines varies,
+     * so that every kind of frame is written. It renders the groups the same way as the players.
+     */
+    private static final class ChangingAdapter implements KaxxScoreboardAdapter, KaxxScoreboardGroupAdapter {
+
+        private int tick;
+
+        @Override
+        public String getTitle(final @Nonnull Player player) {
+            return getTitle();
+        }
+
+        @Override
+        public Collection<String> getLines(final @Nonnull Player player) {
+            return getLines();
+        }
+
+        @Override
+        public String getTitle(final @Nonnull KaxxScoreboardGroup group) {
+            return getTitle();
+        }
+
+        @Override
+        public Collection<String> getLines(final @Nonnull KaxxScoreboardGroup group) {
+            return getLines();
+        }
+
+        private String getTitle() {
+            return "&6Tick " + (this.tick / 10);
+        }
+
+        private Collection<String> getLines() {
+            final int size = 1 + this.tick % 15;
+            final List<String> lines = new ArrayList<>(size);
+
+            for (int i = 0; i < size; i++) {
+                lines.add("&7Line " + i + ": &a" + (this.tick + i) % 7);
+            }
+
+            return lines;
+        }
+
+    }
+
+}
@@ -0,0 +1,105 @@
+package ca.kaxx.board;
+
+import io.netty.channel.Channel;
+import net.minecraft.server.v1_8_R3.NetworkManager;
+import net.minecraft.server.v1_8_R3.Packet;
+import net.minecraft.server.v1_8_R3.PlayerConnection;
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+
+/**
+ * A PlayerConnection stand-in which records the packets sent to it instead of writing them to a network channel.
+ * <p>
+ * It is allocated without running the PlayerConnection constructor, which requires a running server,
+ * so it has no network manager and every packet goes through {@link #sendPacket(Packet)},
+ * unless it is {@link #create(Channel) backed by a channel}.
+ */
+public final class RecordingPlayerConnection extends PlayerConnection {
+
+    private static final Unsafe UNSAFE;
+
+    /**
+     * The offset of the final network manager field of the connection.
+     */
+    private static final long NETWORK_MANAGER;
+
+    static {
+        try {
+            final Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+
+            UNSAFE = (Unsafe) field.get(null);
+            NETWORK_MANAGER = UNSAFE.objectFieldOffset(PlayerConnection.class.getDeclaredField("networkManager"));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * The number of packets sent to this connection.
+     */
+    private long packets;
+
+    private RecordingPlayerConnection() {
+        super(null, null, null);
+        throw new AssertionError("Use RecordingPlayerConnection.create()");
+    }
+
+    /**
+     * Creates a recording connection.
+     *
+     * @return the created connection
+     */
+    public static RecordingPlayerConnection create() {
+        try {
+            return (RecordingPlayerConnection) UNSAFE.allocateInstance(RecordingPlayerConnection.class);
+        } catch (InstantiationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Creates a connection whose network manager writes to a channel, so that the batches of its packets are written
+     * to the channel instead of going through {@link #sendPacket(Packet)}.
+     *
+     * @param channel the channel of the connection
+     * @return the created connection
+     */
+    public static RecordingPlayerConnection create(final Channel channel) {
+        final RecordingPlayerConnection connection = create();
+
+        try {
+            final NetworkManager networkManager = (NetworkManager) UNSAFE.allocateInstance(NetworkManager.class);
+
+            networkManager.channel = channel;
+            UNSAFE.putObject(connection, NETWORK_MANAGER, networkManager);
+        } catch (InstantiationException e) {
+            throw new IllegalStateException(e);
+        }
+
+        return connection;
+    }
+
+    @Override
+    public void sendPacket(final Packet packet) {
+        this.packets++;
+    }
+
+    /**
+     * Returns the number of packets sent to this connection.
+     *
+     * @return the number of packets sent
+     */
+    public long getPackets() {
+        return this.packets;
+    }
+
+    /**
+     * Resets the recorded packets.
+     */
+    public void reset() {
+        this.packets = 0;
+    }
+
+}
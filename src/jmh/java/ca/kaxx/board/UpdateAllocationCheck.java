@@ -0,0 +1,185 @@
+package ca.kaxx.board;
+
+import ca.kaxx.board.adapter.KaxxScoreboardAdapter;
+import ca.kaxx.board.adapter.KaxxScoreboardTemplateAdapter;
+import ca.kaxx.board.template.ScoreboardLineTemplate;
+import ca.kaxx.board.transport.NmsScoreboardTransport;
+import ca.kaxx.board.transport.ScoreboardDisplaySlot;
+import ca.kaxx.board.transport.ScoreboardNames;
+import org.bukkit.entity.Player;
+
+import javax.annotation.Nonnull;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Fails if an update tick allocates once every board displays its lines, which is what happens on most ticks,
+ * or if writing the packets of an update to the channel of a player allocates. It is run by
+ * {@code ./gradlew checkAllocations}, itself part of {@code ./gradlew check}.
+ */
+public final class UpdateAllocationCheck {
+
+    private static final int PLAYERS = 200;
+
+    private static final int WARMUP_TICKS = 20_000;
+
+    private static final int MEASURED_TICKS = 5_000;
+
+    /**
+     * The bytes a tick may allocate on average, leaving room for the rare allocations of the JVM itself.
+     */
+    private static final long MAX_BYTES_PER_TICK = 64;
+
+    private UpdateAllocationCheck() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    public static void main(final String[] args) {
+        final long lines = measure(new StaticAdapter());
+        final long templates = measure(new StaticTemplateAdapter());
+        final long channels = measureChannelWrites();
+
+        System.out.println("Steady-state tick of " + PLAYERS + " boards: " + lines + " bytes with lines, "
+                + templates + " bytes with templates, " + channels + " bytes writing to channels");
+
+        if (lines > MAX_BYTES_PER_TICK || templates > MAX_BYTES_PER_TICK || channels > MAX_BYTES_PER_TICK) {
+            System.err.println("A steady-state tick must not allocate more than " + MAX_BYTES_PER_TICK + " bytes");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Measures the bytes allocated by a steady-state tick.
+     *
+     * @param adapter the adapter providing the lines
+     * @return the average number of bytes allocated per tick
+     */
+    private static long measure(final KaxxScoreboardAdapter adapter) {
+        final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final KaxxScoreboardHandler handler = FakePlayers.createHandler(PLAYERS);
+
+        handler.setAdapter(adapter);
+        handler.setRefreshRate(1);
+
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            handler.getUpdateTask().run();
+        }
+
+        final long before = threads.getCurrentThreadAllocatedBytes();
+
+        for (int i = 0; i < MEASURED_TICKS; i++) {
+            handler.getUpdateTask().run();
+        }
+
+        final long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        handler.cleanup();
+
+        return allocated / MEASURED_TICKS;
+    }
+
+    /**
+     * Measures the bytes allocated by writing the packets of an update to the channel of every player,
+     * through the NMS transport. The packets are the shared ones, so that only the batch itself is measured.
+     *
+     * @return the average number of bytes allocated per tick
+     */
+    private static long measureChannelWrites() {
+        final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final NmsScoreboardTransport[] transports = new NmsScoreboardTransport[PLAYERS];
+
+        for (int i = 0; i < PLAYERS; i++) {
+            transports[i] = new NmsScoreboardTransport(RecordingPlayerConnection.create(DiscardingChannel.create()));
+        }
+
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            writeUpdates(transports);
+        }
+
+        final long before = threads.getCurrentThreadAllocatedBytes();
+
+        for (int i = 0; i < MEASURED_TICKS; i++) {
+            writeUpdates(transports);
+        }
+
+        return (threads.getCurrentThreadAllocatedBytes() - before) / MEASURED_TICKS;
+    }
+
+    /**
+     * Writes an update made of shared packets through every transport.
+     *
+     * @param transports the transports of the players
+     */
+    private static void writeUpdates(final NmsScoreboardTransport[] transports) {
+        for (final NmsScoreboardTransport transport : transports) {
+            transport.begin();
+
+            for (int line = 0; line < ScoreboardNames.LINES; line++) {
+                transport.removeTeam(line);
+            }
+
+            transport.displayObjective(ScoreboardDisplaySlot.SCORE);
+            transport.flush();
+        }
+    }
+
+    /**
+     * An adapter returning the same lines on every call.
+     */
+    private static final class StaticAdapter implements KaxxScoreboardAdapter {
+
+        private static final List<String> LINES = List.of(
+                "&7&m----------------",
+                "&7Rank: &fMember",
+                "&7Kills: &a12",
+                "&7Deaths: &c12",
+                "",
+                "&ekaxx.ca",
+                "&7&m---------------- "
+        );
+
+        @Override
+        public String getTitle(final @Nonnull Player player) {
+            return "&6&lKaxxBoard";
+        }
+
+        @Override
+        public Collection<String> getLines(final @Nonnull Player player) {
+            return LINES;
+        }
+
+    }
+
+    /**
+     * A template adapter whose values do not change.
+     */
+    private static final class StaticTemplateAdapter implements KaxxScoreboardTemplateAdapter {
+
+        private static final List<ScoreboardLineTemplate> TEMPLATES = List.of(
+                ScoreboardLineTemplate.compile("&7&m----------------"),
+                ScoreboardLineTemplate.compile("&7Kills: &a{kills}"),
+                ScoreboardLineTemplate.compile("&7Deaths: &c{deaths}"),
+                ScoreboardLineTemplate.compile("&ekaxx.ca")
+        );
+
+        @Override
+        public String getTitle(final @Nonnull Player player) {
+            return "&6&lKaxxBoard";
+        }
+
+        @Override
+        public List<ScoreboardLineTemplate> getTemplates(final @Nonnull Player player) {
+            return TEMPLATES;
+        }
+
+        @Override
+        public Object getValue(final @Nonnull Player player, final @Nonnull String slot) {
+            return "12";
+        }
+
+    }
+
+}
@@ -0,0 +1,104 @@
+package ca.kaxx.board.packets;
+
+import net.minecraft.server.v1_8_R3.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the serializer builders, which encode every field and let the NMS packet parse them back,
+ * with the {@link ScoreboardPacketFactory}, which fills the NMS packets directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScoreboardPacketFactoryBenchmark {
+
+    private static final String NAME = "7";
+    private static final String PREFIX = "§7Kills: §a";
+    private static final String SUFFIX = "§a1234";
+    private static final String ENTRY = "§7";
+
+    @Setup
+    public void checkDirect() {
+        if (!ScoreboardPacketFactory.isDirect()) {
+            throw new IllegalStateException("The packet fields could not be resolved, the comparison would be meaningless");
+        }
+    }
+
+    @Benchmark
+    public PacketPlayOutScoreboardTeam teamSerializer() {
+        try (final ScoreboardTeamPacket team = new ScoreboardTeamPacket()) {
+            team.setName(NAME);
+            team.setTeamAction(ScoreboardAction.UPDATE);
+            team.setCustomName(NAME);
+            team.setPrefix(PREFIX);
+            team.setSuffix(SUFFIX);
+            team.setVisibility(ScoreboardTeamBase.EnumNameTagVisibility.ALWAYS);
+            team.setCollision();
+            team.setTeamColor(EnumChatFormat.RESET);
+            team.setEntry(ENTRY);
+
+            return team.build();
+        }
+    }
+
+    @Benchmark
+    public PacketPlayOutScoreboardTeam teamDirect() {
+        return ScoreboardPacketFactory.team(NAME, ScoreboardAction.UPDATE, PREFIX, SUFFIX, ENTRY);
+    }
+
+    @Benchmark
+    public PacketPlayOutScoreboardScore scoreSerializer() {
+        try (final ScoreboardScorePacket score = new ScoreboardScorePacket()) {
+            score.setName(ENTRY);
+            score.setBoardAction(PacketPlayOutScoreboardScore.EnumScoreboardAction.CHANGE);
+            score.setObjectiveName("board");
+            score.setScore(7);
+
+            return score.build();
+        }
+    }
+
+    @Benchmark
+    public PacketPlayOutScoreboardScore scoreDirect() {
+        return ScoreboardPacketFactory.score(ENTRY, "board", 7, PacketPlayOutScoreboardScore.EnumScoreboardAction.CHANGE);
+    }
+
+    @Benchmark
+    public PacketPlayOutScoreboardObjective objectiveSerializer() {
+        try (final ScoreboardObjectivePacket objective = new ScoreboardObjectivePacket()) {
+            objective.setObjectiveName("board");
+            objective.setBoardAction(ScoreboardAction.UPDATE);
+            objective.setTitle(PREFIX);
+            objective.setDisplayType(IScoreboardCriteria.EnumScoreboardHealthDisplay.INTEGER);
+
+            return objective.build();
+        }
+    }
+
+    @Benchmark
+    public PacketPlayOutScoreboardObjective objectiveDirect() {
+        return ScoreboardPacketFactory.objective("board", ScoreboardAction.UPDATE, PREFIX,
+                IScoreboardCriteria.EnumScoreboardHealthDisplay.INTEGER);
+    }
+
+    @Benchmark
+    public PacketPlayOutScoreboardDisplayObjective displaySerializer() {
+        try (final ScoreboardDisplayObjectivePacket display = new ScoreboardDisplayObjectivePacket()) {
+            display.setType(ScoreboardDisplayObjectivePacket.Type.SCORE);
+            display.setObjectiveName("board");
+
+            return display.build();
+        }
+    }
+
+    @Benchmark
+    public PacketPlayOutScoreboardDisplayObjective displayDirect() {
+        return ScoreboardPacketFactory.display(ScoreboardDisplayObjectivePacket.Type.SCORE, "board");
+    }
+
+}
@@ -1,81 +1,198 @@
 package ca.kaxx.board;
 
-import ca.kaxx.board.packets.*;
+import ca.kaxx.board.transport.InMemoryScoreboardTransport;
+import ca.kaxx.board.transport.NmsScoreboardTransport;
+import ca.kaxx.board.transport.ScoreboardDisplaySlot;
+import ca.kaxx.board.transport.ScoreboardNames;
+import ca.kaxx.board.transport.ScoreboardTransport;
+import com.google.common.base.Preconditions;
+import lombok.AccessLevel;
 import lombok.Data;
-import net.minecraft.server.v1_8_R3.*;
+import lombok.Getter;
+import lombok.Setter;
 import org.bukkit.ChatColor;
-import org.bukkit.craftbukkit.v1_8_R3.entity.CraftPlayer;
 import org.bukkit.entity.Player;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
 
 /**
  * Represents a scoreboard for a player.
+ * <p>
+ * The board keeps what the client displays and only sends the differences, through a {@link ScoreboardTransport}
+ * which decides how they reach the player.
+ * <p>
+ * The content of a line is held by a slot, made of a team and a score entry, while the score of the entry decides
+ * the index the line is displayed on. A line can therefore be moved to another index by only changing its score,
+ * which {@link #setLines(ScoreboardLine[], int)} does whenever the content of a line is already displayed elsewhere.
  */
 @Data
 public final class KaxxScoreboard {
 
     /**
-     * Represents the connection for a player in the KaxxScoreboard class.
-     * This variable holds the reference to the player's connection.
+     * The maximum length of a static key, reached by keys whose score entry only has to repeat a single color code.
+     * It used to be 56 before the score entries of the static lines were made unique, which takes 4 of their 40
+     * characters, so longer keys are now rejected.
      */
-    private final PlayerConnection connection;
+    public static final int MAX_KEY_LENGTH = 52;
 
     /**
-     * Represents a private final array of strings for storing variable entries.
+     * Carries the changes of this scoreboard to the player.
+     */
+    private final ScoreboardTransport transport;
+
+    /**
+     * The score entries of the slots, null for the slots which do not hold a line.
      */
     private final String[] entries,
     /**
-     * The variable keys represents the keys of a scoreboard.
+     * The prefixes of the static keys of the slots, null for the slots which do not hold a static line.
+     */
+    keys,
+    /**
+     * The full static keys of the lines created through {@link #createLine(int, String)}, per slot.
      */
-    keys;
+    lineKeys;
 
     /**
-     * Represents the display packet used to show a scoreboard objective.
-     *
-     * <p>This packet is a subclass of {@link PacketDataSerializer} and is used to configure and build a {@link PacketPlayOutScoreboardDisplayObjective} object.</p>
-     * <p>It provides methods to set the type of the scoreboard and the name of the objective, as well as a method to build the final display packet.</p>
-     * <p>Example usage:</p>
-     * {@code ScoreboardDisplayObjectivePacket objectiveDisplay = new ScoreboardDisplayObjectivePacket();}<br>
-     * {@code objectiveDisplay.setType(ScoreboardDisplayObjectivePacket.Type.SCORE);}<br>
-     * {@code objectiveDisplay.setObjectiveName("board");}<br>
-     * {@code PacketPlayOutScoreboardDisplayObjective displayPacket = objectiveDisplay.build();}
+     * The prefixes last sent to the client, per slot.
+     */
+    private final String[] prefixes,
+    /**
+     * The suffixes last sent to the client, per slot.
      */
-    private final PacketPlayOutScoreboardDisplayObjective displayPacket;
+    suffixes;
+
+    /**
+     * The index each slot is displayed on, which is the score of its entry, or -1 for the slots which do not hold
+     * a line.
+     */
+    private final int[] positions;
+
+    /**
+     * The slot displayed on each index, or -1 for the indexes which do not have a line.
+     */
+    private final int[] slots;
+
+    /**
+     * The slot chosen for each index while {@link #setLines(ScoreboardLine[], int)} computes a layout,
+     * kept to avoid allocating on each refresh.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final int[] layout;
+
+    /**
+     * The display slot in which the objective is shown.
+     */
+    @Setter(AccessLevel.NONE)
+    private ScoreboardDisplaySlot displaySlot;
 
     /**
      * Determines whether the scoreboard has an objective.
      */
     private boolean hasObjective;
 
+    /**
+     * The title last sent to the client, or null if the objective has not been created yet.
+     */
+    @Setter(AccessLevel.NONE)
+    private String title;
+
+    /**
+     * The untranslated title last set through {@link #setRawTitle(String)}, or null if the title was set otherwise.
+     */
+    @Setter(AccessLevel.NONE)
+    private String rawTitle;
+
+    /**
+     * The number of line updates that were sent to the client.
+     */
+    @Setter(AccessLevel.NONE)
+    private long sentUpdates;
+
+    /**
+     * The number of line updates that were skipped because the client already displays the same content.
+     */
+    @Setter(AccessLevel.NONE)
+    private long skippedUpdates;
+
     /**
      * Initializes a KaxxScoreboard for the specified player.
      *
      * @param player The player for whom the scoreboard is initialized. Cannot be null.
      */
     public KaxxScoreboard(final @Nonnull Player player) {
-        this.connection = ((CraftPlayer) player).getHandle().playerConnection;
+        this(NmsScoreboardTransport.of(player));
+    }
+
+    /**
+     * Initializes a detached KaxxScoreboard, whose changes are kept in memory until they are drained.
+     * It is used to render a board once for a whole {@link KaxxScoreboardGroup}.
+     */
+    KaxxScoreboard() {
+        this(new InMemoryScoreboardTransport());
+    }
+
+    /**
+     * Initializes a KaxxScoreboard sending its changes through the specified transport.
+     *
+     * @param transport The transport carrying the changes to the player. Cannot be null.
+     */
+    public KaxxScoreboard(final @Nonnull ScoreboardTransport transport) {
+        this.transport = transport;
 
         this.entries = new String[15];
         this.keys = new String[15];
+        this.lineKeys = new String[15];
+        this.prefixes = new String[15];
+        this.suffixes = new String[15];
+
+        this.positions = new int[15];
+        this.slots = new int[15];
+        this.layout = new int[15];
+
+        Arrays.fill(this.positions, -1);
+        Arrays.fill(this.slots, -1);
 
         this.hasObjective = false;
 
-        this.displayPacket = createObjectiveDisplay();
+        this.displaySlot = ScoreboardDisplaySlot.SCORE;
     }
 
     /**
-     * Creates a PacketPlayOutScoreboardDisplayObjective to display a scoreboard objective.
+     * Sets the display slot in which the objective is shown.
+     * The display packet is only sent if the slot actually changes and the objective already exists,
+     * otherwise it is sent along with the objective creation.
      *
-     * @return The created PacketPlayOutScoreboardDisplayObjective.
+     * @param slot The display slot to use. Cannot be null.
      */
-    private PacketPlayOutScoreboardDisplayObjective createObjectiveDisplay() {
-        final ScoreboardDisplayObjectivePacket objectiveDisplay = new ScoreboardDisplayObjectivePacket();
+    public void setDisplaySlot(final @Nonnull ScoreboardDisplaySlot slot) {
+        if (slot == this.displaySlot) {
+            return;
+        }
 
-        objectiveDisplay.setType(ScoreboardDisplayObjectivePacket.Type.SCORE);
-        objectiveDisplay.setObjectiveName("board");
+        this.displaySlot = slot;
 
-        return objectiveDisplay.build();
+        if (hasObjective) {
+            this.transport.displayObjective(slot);
+        }
+    }
+
+    /**
+     * Starts an update of the scoreboard.
+     * Every packet produced until {@link #endUpdate()} is held back and flushed to the player at once.
+     */
+    public void beginUpdate() {
+        this.transport.begin();
+    }
+
+    /**
+     * Ends an update of the scoreboard and flushes the packets it produced to the player.
+     */
+    public void endUpdate() {
+        this.transport.flush();
     }
 
     /**
@@ -89,35 +206,44 @@ public final class KaxxScoreboard {
     }
 
     /**
-     * Returns the score corresponding to the given index.
+     * Returns the default score entry of a slot.
      *
-     * @param index the index of the score
+     * @param slot the slot of the score
      * @return the score as a string
      */
-    private String getScore(final int index) {
-        return ChatColor.values()[index].toString();
+    private String getScore(final int slot) {
+        return ScoreboardNames.entry(slot);
     }
 
     /**
-     * Commits a score to the scoreboard.
+     * Commits a score to the scoreboard, displaying a slot on an index.
      *
-     * @param index       The index of the score to commit.
-     * @param name        The name of the score.
-     * @param boardAction The scoreboard action for the score.
+     * @param index The index of the line, which is the score to commit.
+     * @param slot  The slot holding the line.
+     * @param name  The name of the score.
      */
-    private void commitScore(final int index, final @Nonnull String name,
-                             final @Nonnull PacketPlayOutScoreboardScore.EnumScoreboardAction boardAction) {
+    private void commitScore(final int index, final int slot, final @Nonnull String name) {
+        entries[slot] = name;
+        positions[slot] = index;
+        slots[index] = slot;
 
-        entries[index] = boardAction == PacketPlayOutScoreboardScore.EnumScoreboardAction.CHANGE ? name : null;
-
-        final ScoreboardScorePacket score = new ScoreboardScorePacket();
+        this.transport.setScore(index, name);
+    }
 
-        score.setName(name);
-        score.setBoardAction(boardAction);
-        score.setObjectiveName("board");
-        score.setScore(index);
+    /**
+     * Returns the first slot which does not hold a line.
+     * There is always one when an index does not have a line, since each slot is displayed on a single index.
+     *
+     * @return the free slot
+     */
+    private int freeSlot() {
+        for (int slot = 0; slot < entries.length; slot++) {
+            if (entries[slot] == null) {
+                return slot;
+            }
+        }
 
-        this.connection.sendPacket(score.build());
+        throw new IllegalStateException("Every slot of the scoreboard is already used !");
     }
 
     /**
@@ -126,12 +252,48 @@ public final class KaxxScoreboard {
      * @param index The index to check
      * @return true if the specified index has a line, false otherwise
      */
-    private boolean hasLine(final int index) {
-        return entries[index] != null;
+    public boolean hasLine(final int index) {
+        return slots[index] >= 0;
+    }
+
+    /**
+     * Checks if the client already displays the given prefix and suffix in the specified slot.
+     *
+     * @param slot   The slot of the line
+     * @param prefix The prefix to compare
+     * @param suffix The suffix to compare
+     * @return true if the prefix and suffix are the ones last sent for this slot, false otherwise
+     */
+    private boolean isDisplayed(final int slot, final @Nonnull String prefix, final @Nonnull String suffix) {
+        return prefix.equals(this.prefixes[slot]) && suffix.equals(this.suffixes[slot]);
+    }
+
+    /**
+     * Remembers the prefix and suffix sent to the client for the specified slot.
+     *
+     * @param slot   The slot of the line
+     * @param prefix The prefix that was sent
+     * @param suffix The suffix that was sent
+     */
+    private void markDisplayed(final int slot, final @Nullable String prefix, final @Nullable String suffix) {
+        this.prefixes[slot] = prefix;
+        this.suffixes[slot] = suffix;
+    }
+
+    /**
+     * Checks if a slot holds a line without static key whose content can be reused for another line.
+     *
+     * @param slot    The slot to check
+     * @param claimed The bits of the slots already chosen for other lines
+     * @return true if the slot holds an unclaimed line without static key, false otherwise
+     */
+    private boolean isReusable(final int slot, final int claimed) {
+        return (claimed & (1 << slot)) == 0 && entries[slot] != null && keys[slot] == null;
     }
 
     /**
      * Sets the title of the scoreboard.
+     * Nothing is sent if the objective already exists and the client already displays this title.
      *
      * @param title the title to set for the scoreboard.
      *              Must be non-null and contain 0 to 48 characters.
@@ -142,205 +304,381 @@ public final class KaxxScoreboard {
             throw new IllegalArgumentException("Title must contain 0 to 48 characters !");
         }
 
-        final ScoreboardAction action;
+        if (hasObjective && title.equals(this.title)) {
+            this.skippedUpdates++;
+            return;
+        }
 
         if (!hasObjective) {
-            action = ScoreboardAction.CREATE;
             hasObjective = true;
+
+            this.transport.createObjective(title);
+            this.transport.displayObjective(displaySlot);
         } else {
-            action = ScoreboardAction.UPDATE;
+            this.transport.updateObjective(title);
         }
 
-        final ScoreboardObjectivePacket objective = new ScoreboardObjectivePacket();
+        this.title = title;
+        this.rawTitle = null;
+        this.sentUpdates++;
+    }
+
+    /**
+     * Sets the title of the scoreboard, using '&amp;' as the alternate color code.
+     * The title is only translated if it differs from the last one set through this method,
+     * so that setting the same title on every refresh allocates nothing.
+     *
+     * @param rawTitle the title to set for the scoreboard, using '&amp;' as the alternate color code.
+     *                 Must be non-null and contain 0 to 48 characters once translated.
+     * @throws IllegalArgumentException if the title contains more than 48 characters once translated.
+     */
+    public void setRawTitle(final @Nonnull String rawTitle) {
+        if (hasObjective && rawTitle.equals(this.rawTitle)) {
+            this.skippedUpdates++;
+            return;
+        }
 
-        objective.setObjectiveName("board");
-        objective.setBoardAction(action);
-        objective.setTitle(title);
-        objective.setDisplayType(IScoreboardCriteria.EnumScoreboardHealthDisplay.INTEGER);
+        setTitle(ChatColor.translateAlternateColorCodes('&', rawTitle));
 
-        this.connection.sendPacket(objective.build());
-        this.connection.sendPacket(displayPacket);
+        this.rawTitle = rawTitle;
     }
 
     /**
-     * Returns the last colors used in a given string.
+     * Sets the content of a line in the scoreboard.
      *
-     * @param str    the string from which to extract the last colors
-     * @param length the length of the string
-     * @param lag    the lag value to determine the colors
-     * @return the last colors used in the string
+     * @param index The index of the line. Must be between 0 and 15.
+     * @param line  The content of the line. Must be between 0 and 48 characters long.
+     * @throws IllegalArgumentException If the index is out of bounds or the line is too long.
      */
-    private String getLastColors(final @Nonnull String str, final int length, final int lag) {
-        if (length == 0) {
-            return "";
+    public void setLine(final int index, final @Nonnull String line) {
+        if (isUnCorrectIndex(index)) {
+            throw new IllegalArgumentException("Index must be between 0 and 15 !");
+        }
+        if (line.length() > 48) {
+            throw new IllegalArgumentException("Line " + index + " must contain 0 to 48 characters !");
         }
 
-        int i = length - 1;
-
-        char previousChar = str.charAt(i), currentChar;
-        final char[] colors = new char[2];
-        int colorIndex;
+        setLine(index, ScoreboardLine.split(line));
+    }
 
-        if (lag == 1) {
-            colors[((currentChar = str.charAt(16)) > 106 && previousChar < 114) ? 1 : 0] = currentChar;
+    /**
+     * Sets the content of a line in the scoreboard from a line which has already been split,
+     * for example by a {@link ca.kaxx.board.cache.ScoreboardLineCache}.
+     *
+     * @param index The index of the line. Must be between 0 and 15.
+     * @param line  The split content of the line.
+     * @throws IllegalArgumentException If the index is out of bounds.
+     */
+    public void setLine(final int index, final @Nonnull ScoreboardLine line) {
+        if (isUnCorrectIndex(index)) {
+            throw new IllegalArgumentException("Index must be between 0 and 15 !");
         }
 
-        while (--i > -1) {
-            if ((currentChar = str.charAt(i)) == 167) {
-                colorIndex = (previousChar > 106 && previousChar < 114) ? 1 : 0;
-                if (colors[colorIndex] != 0) {
-                    continue;
-                }
+        final String prefix = line.prefix();
+        final String suffix = line.suffix();
 
-                colors[colorIndex] = previousChar;
-                if (colors[colorIndex ^ 1] == 0) {
-                    continue;
-                }
+        int slot = this.slots[index];
 
-                break;
-            }
-            previousChar = currentChar;
+        if (slot >= 0 && this.keys[slot] == null && isDisplayed(slot, prefix, suffix)) {
+            this.skippedUpdates++;
+            return;
         }
 
-        final StringBuilder colorsBuilder = new StringBuilder(4);
-
-        if (colors[0] != 0) {
-            colorsBuilder.append("§").append(colors[0]);
+        if (slot >= 0 && this.keys[slot] != null) {
+            removeLine(index);
+            slot = -1;
         }
 
-        if (colors[1] != 0) {
-            colorsBuilder.append("§").append(colors[1]);
+        if (slot < 0) {
+            slot = freeSlot();
+
+            final String score = getScore(slot);
+
+            commitScore(index, slot, score);
+            this.transport.createTeam(slot, prefix, suffix, score);
+        } else {
+            this.transport.updateTeam(slot, prefix, suffix);
         }
 
-        return colorsBuilder.toString();
+        markDisplayed(slot, prefix, suffix);
+        this.sentUpdates++;
     }
 
     /**
-     * Sets the content of a line in the scoreboard.
+     * Sets every line of the scoreboard at once, removing the lines at the indexes above them.
+     * <p>
+     * The lines whose content is already displayed on another index are moved by only changing the score of their
+     * entry, and the other lines reuse the slots which are no longer displayed, so that inserting a line shifting
+     * every other one only sends a few score changes. The lines created through {@link #createLine(int, String)}
+     * are replaced.
      *
-     * @param index The index of the line. Must be between 0 and 15.
-     * @param line  The content of the line. Must be between 0 and 48 characters long.
-     * @throws IllegalArgumentException If the index is out of bounds or the line is too long.
+     * @param lines The split content of the lines, indexed by index, 0 being the bottom line. Cannot be null.
+     * @param size  The number of lines, between 0 and 15 (inclusive).
+     * @throws IllegalArgumentException If there are more than 15 lines.
      */
-    public void setLine(final int index, final @Nonnull String line) {
-        if (isUnCorrectIndex(index)) {
-            throw new IllegalArgumentException("Index must be between 0 and 15 !");
-        }
-        if (line.length() > 48) {
-            throw new IllegalArgumentException("Line " + index + " must contain 0 to 48 characters !");
+    public void setLines(final @Nonnull ScoreboardLine[] lines, final int size) {
+        Preconditions.checkArgument(size >= 0 && size <= 15, "A scoreboard cannot display more than 15 lines !");
+
+        for (int slot = 0; slot < entries.length; slot++) {
+            if (keys[slot] != null) {
+                removeSlot(slot);
+            }
         }
 
-        final int length = line.length();
-        final int lag = (length > 16 && line.charAt(15) == 167) ? 1 : 0;
-        final int maxPrefixLength = 16 - lag;
-        final int prefixLength = Math.min(length, maxPrefixLength);
+        final int[] layout = this.layout;
+        int claimed = 0;
 
-        final String lastColors = getLastColors(line, prefixLength, lag);
+        for (int index = 0; index < size; index++) {
+            final ScoreboardLine line = lines[index];
+            final int slot = this.slots[index];
 
-        final int maxIndex = 48 - lastColors.length();
+            if (slot >= 0 && isReusable(slot, claimed) && isDisplayed(slot, line.prefix(), line.suffix())) {
+                layout[index] = slot;
+                claimed |= 1 << slot;
+            } else {
+                layout[index] = -1;
+            }
+        }
 
-        if (length > maxIndex) {
-            throw new IllegalArgumentException("Due to colors, line " + index + " cannot be greater than "
-                    + maxIndex + "!");
+        for (int index = 0; index < size; index++) {
+            if (layout[index] >= 0) {
+                continue;
+            }
+
+            final ScoreboardLine line = lines[index];
+
+            for (int slot = 0; slot < entries.length; slot++) {
+                if (isReusable(slot, claimed) && isDisplayed(slot, line.prefix(), line.suffix())) {
+                    layout[index] = slot;
+                    claimed |= 1 << slot;
+                    break;
+                }
+            }
         }
 
-        final String score = getScore(index);
-        final boolean hasLine = hasLine(index);
+        for (int index = 0; index < size; index++) {
+            if (layout[index] >= 0) {
+                continue;
+            }
+
+            int slot = this.slots[index];
+
+            if (slot < 0 || !isReusable(slot, claimed)) {
+                slot = -1;
+
+                for (int candidate = 0; candidate < entries.length; candidate++) {
+                    if (isReusable(candidate, claimed)) {
+                        slot = candidate;
+                        break;
+                    }
+                }
+            }
+
+            if (slot < 0) {
+                for (int candidate = 0; candidate < entries.length; candidate++) {
+                    if ((claimed & (1 << candidate)) == 0 && entries[candidate] == null) {
+                        slot = candidate;
+                        break;
+                    }
+                }
+            }
 
-        if (!hasLine) {
-            commitScore(index, score, PacketPlayOutScoreboardScore.EnumScoreboardAction.CHANGE);
-        } else if (this.keys[index] != null) {
-            this.keys[index] = null;
+            layout[index] = slot;
+            claimed |= 1 << slot;
         }
 
-        final String name = Integer.toString(index);
+        for (int slot = 0; slot < entries.length; slot++) {
+            if (entries[slot] != null && (claimed & (1 << slot)) == 0) {
+                removeSlot(slot);
+            }
+        }
+
+        Arrays.fill(this.slots, -1);
+
+        for (int index = 0; index < size; index++) {
+            final ScoreboardLine line = lines[index];
+            final String prefix = line.prefix();
+            final String suffix = line.suffix();
+            final int slot = layout[index];
+
+            if (entries[slot] == null) {
+                final String score = getScore(slot);
 
-        final ScoreboardTeamPacket team = new ScoreboardTeamPacket();
+                commitScore(index, slot, score);
+                this.transport.createTeam(slot, prefix, suffix, score);
 
-        team.setName(name);
-        team.setTeamAction(hasLine ? ScoreboardAction.UPDATE : ScoreboardAction.CREATE);
-        team.setCustomName(name);
-        team.setPrefix(line.substring(0, prefixLength));
-        team.setSuffix(length > maxPrefixLength ? (lastColors + line.substring(maxPrefixLength)) : "");
-        team.setVisibility(ScoreboardTeamBase.EnumNameTagVisibility.ALWAYS);
-        team.setCollision();
-        team.setTeamColor(EnumChatFormat.RESET);
-        team.setEntry(score);
+                markDisplayed(slot, prefix, suffix);
+                this.sentUpdates++;
+                continue;
+            }
+
+            boolean changed = false;
+
+            if (!isDisplayed(slot, prefix, suffix)) {
+                this.transport.updateTeam(slot, prefix, suffix);
+
+                markDisplayed(slot, prefix, suffix);
+                changed = true;
+            }
+
+            if (positions[slot] != index) {
+                commitScore(index, slot, entries[slot]);
+                changed = true;
+            } else {
+                slots[index] = slot;
+            }
 
-        this.connection.sendPacket(team.build());
+            if (changed) {
+                this.sentUpdates++;
+            } else {
+                this.skippedUpdates++;
+            }
+        }
+    }
+
+    /**
+     * Removes every line displayed on an index greater than or equal to the given one.
+     *
+     * @param from The index of the first line to remove, between 0 and 15 (inclusive).
+     * @throws IllegalArgumentException If the index is out of bounds.
+     */
+    public void removeLinesFrom(final int from) {
+        Preconditions.checkArgument(from >= 0 && from <= 15, "Index must be between 0 and 15 !");
+
+        for (int index = from; index < slots.length; index++) {
+            if (slots[index] >= 0) {
+                removeSlot(slots[index]);
+            }
+        }
     }
 
     /**
      * Creates a line in the scoreboard with the given index and value.
      * Throws IllegalArgumentException if the index is not between 0 and 14 (inclusive),
-     * or if the value's length is greater than 56 characters.
+     * or if the value's length is greater than {@link #getMaxKeyLength(String)}, at most {@value #MAX_KEY_LENGTH}
+     * characters.
      *
      * @param valueIndex an IndexValue object representing the index and value of the line
      */
     public void createLine(final @Nonnull IndexValue valueIndex) {
-        final int index = valueIndex.index();
+        createLine(valueIndex.index(), valueIndex.value());
+    }
 
+    /**
+     * Creates a line in the scoreboard with the given index and static key.
+     * Nothing is sent if the line already has this static key.
+     * <p>
+     * The key starts in the prefix of the team, and the rest of it goes into the score entry, which starts with the
+     * unique entry of its slot followed by the colors active at the end of the prefix. Lines with equal keys, such as
+     * two empty separators, therefore remain distinct lines.
+     *
+     * @param index the index of the line. Must be between 0 and 14 (inclusive).
+     * @param key   the static key of the line. Must contain 0 to {@value #MAX_KEY_LENGTH} characters, fewer when the
+     *              colors active at the end of its first 16 characters take more than one color code to repeat in
+     *              the score entry, see {@link #getMaxKeyLength(String)}. Keys of 53 to 56 characters, which used to be
+     *              accepted, are rejected.
+     * @throws IllegalArgumentException if the index is out of bounds or the key is too long
+     */
+    public void createLine(final int index, final @Nonnull String key) {
         if (isUnCorrectIndex(index)) {
             throw new IllegalArgumentException("Index must be between 0 and 15 !");
         }
 
-        final String key = valueIndex.value();
+        if (hasLine(index) && key.equals(this.lineKeys[this.slots[index]])) {
+            this.skippedUpdates++;
+            return;
+        }
 
         final int keyLength = key.length();
 
-        if (keyLength > 56) {
-            throw new IllegalArgumentException("Line " + index + "'s static key must contain 0 to 56 characters !");
+        if (keyLength > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Line " + index + "'s static key must contain 0 to "
+                    + MAX_KEY_LENGTH + " characters !");
+        }
+
+        final int prefixLength = prefixLength(key);
+        final String colors = entryColors(key, prefixLength);
+
+        final int maxIndex = 38 + prefixLength - colors.length();
+
+        if (keyLength > maxIndex) {
+            throw new IllegalArgumentException("Due to colors, line " + index + "'s key cannot be greater than "
+                    + maxIndex + "!");
         }
 
         if (hasLine(index)) {
             removeLine(index);
         }
 
-        final String prefix;
-
-        int prefixLength;
+        final String prefix = key.substring(0, prefixLength);
+        final int slot = freeSlot();
+        final String score = getScore(slot) + colors + key.substring(prefixLength);
 
-        if (keyLength > 40) {
-            prefixLength = 16;
-            prefix = key.substring(0, 16);
-        } else {
-            prefixLength = 0;
-            prefix = "";
-        }
+        keys[slot] = prefix;
+        lineKeys[slot] = key;
+        commitScore(index, slot, score);
 
-        final int lag = (prefixLength > 0 && prefix.charAt(15) == 167) ? 1 : 0;
+        this.transport.createTeam(slot, prefix, "", score);
 
-        prefixLength = prefixLength - lag;
+        markDisplayed(slot, prefix, "");
+    }
 
-        final String lastColors = getLastColors(prefix, prefixLength, lag);
+    /**
+     * Returns the maximum length of a static key starting like the given one, which depends on the colors active at
+     * the end of its first 16 characters since they are repeated in its score entry.
+     *
+     * @param key the static key. Cannot be null.
+     * @return the maximum length of the key, at most {@value #MAX_KEY_LENGTH}
+     */
+    public static int getMaxKeyLength(final @Nonnull String key) {
+        final int prefixLength = prefixLength(key);
 
-        final int maxIndex = 56 - lastColors.length();
+        return Math.min(MAX_KEY_LENGTH, 38 + prefixLength - entryColors(key, prefixLength).length());
+    }
 
-        if (keyLength > maxIndex) {
-            throw new IllegalArgumentException("Due to colors, line " + index + "'s key cannot be greater than "
-                    + maxIndex + "!");
-        }
+    /**
+     * Returns the length of the part of a static key displayed in the prefix of its team,
+     * which never ends with a color char.
+     *
+     * @param key the static key.
+     * @return the length of the prefix
+     */
+    private static int prefixLength(final @Nonnull String key) {
+        final int lag = (key.length() > 16 && key.charAt(15) == ChatColor.COLOR_CHAR) ? 1 : 0;
 
-        final String score = lastColors + key.substring(prefixLength, keyLength);
+        return Math.min(key.length(), 16 - lag);
+    }
 
-        keys[index] = prefix;
-        commitScore(index, score, PacketPlayOutScoreboardScore.EnumScoreboardAction.CHANGE);
+    /**
+     * Returns the color codes repeated in the score entry of a static key, after the unique entry of its slot,
+     * so that the rest of the key keeps the colors active at the end of its prefix.
+     *
+     * @param key          the static key.
+     * @param prefixLength the length of its prefix.
+     * @return the color codes, starting with a color
+     */
+    private static String entryColors(final @Nonnull String key, final int prefixLength) {
+        final int lag = (key.length() > 16 && key.charAt(15) == ChatColor.COLOR_CHAR) ? 1 : 0;
+        final String lastColors = ScoreboardLine.getLastColors(key, prefixLength, lag);
 
-        final String name = Integer.toString(index);
+        return startsWithColor(lastColors) ? lastColors : ChatColor.RESET + lastColors;
+    }
 
-        final ScoreboardTeamPacket team = new ScoreboardTeamPacket();
+    /**
+     * Checks if a sequence of color codes starts with a color, which resets the formats and the color set by the
+     * unique entry of a slot.
+     *
+     * @param colors the color codes, as returned by {@link ScoreboardLine#getLastColors(String, int, int)}
+     * @return true if the first color code is a color, false if it is a format or there is none
+     */
+    private static boolean startsWithColor(final @Nonnull String colors) {
+        if (colors.isEmpty()) {
+            return false;
+        }
 
-        team.setName(name);
-        team.setTeamAction(ScoreboardAction.CREATE);
-        team.setCustomName(name);
-        team.setPrefix(prefix);
-        team.setSuffix("");
-        team.setVisibility(ScoreboardTeamBase.EnumNameTagVisibility.ALWAYS);
-        team.setCollision();
-        team.setTeamColor(EnumChatFormat.RESET);
-        team.setEntry(score);
+        final ChatColor color = ChatColor.getByChar(colors.charAt(1));
 
-        this.connection.sendPacket(team.build());
+        return color != null && color.isColor();
     }
 
     /**
@@ -352,13 +690,26 @@ public final class KaxxScoreboard {
      * @throws IllegalArgumentException if the index is out of range or the value is too long
      */
     public <T> void setValue(final @Nonnull IndexValue valueIndex, final @Nonnull T value) {
-        final int index = valueIndex.index();
+        setValue(valueIndex.index(), value);
+    }
 
+    /**
+     * Sets the value for a specific index in the scoreboard.
+     * Nothing is sent if the client already displays this value.
+     *
+     * @param index the index of a line created through {@link #createLine(int, String)}
+     * @param value the value to set
+     * @param <T>   the type of the value
+     * @throws IllegalArgumentException if the index is out of range, the line has no static key or the value is too
+     *                                  long
+     */
+    public <T> void setValue(final int index, final @Nonnull T value) {
         if (isUnCorrectIndex(index)) {
             throw new IllegalArgumentException("Index must be between 0 and 15 !");
         }
 
-        final String key = keys[valueIndex.index()];
+        final int slot = slots[index];
+        final String key = slot >= 0 ? keys[slot] : null;
 
         if (key == null) {
             throw new IllegalArgumentException("Line " + index + "'s does not have static key!");
@@ -370,100 +721,122 @@ public final class KaxxScoreboard {
             throw new IllegalArgumentException("Line " + index + "'s suffix must contain 0 to 16 characters!");
         }
 
-        final String name = Integer.toString(index);
-
-        final ScoreboardTeamPacket team = new ScoreboardTeamPacket();
+        if (isDisplayed(slot, key, suffix)) {
+            this.skippedUpdates++;
+            return;
+        }
 
-        team.setName(name);
-        team.setTeamAction(ScoreboardAction.UPDATE);
-        team.setCustomName(name);
-        team.setPrefix(keys[index]);
-        team.setSuffix(suffix);
-        team.setVisibility(ScoreboardTeamBase.EnumNameTagVisibility.ALWAYS);
-        team.setCollision();
-        team.setTeamColor(EnumChatFormat.RESET);
-        team.setEntry(getScore(index));
+        this.transport.updateTeam(slot, key, suffix);
 
-        this.connection.sendPacket(team.build());
+        markDisplayed(slot, key, suffix);
+        this.sentUpdates++;
     }
 
     /**
      * Removes a line from the scoreboard at the specified index.
      *
      * @param index the index of the line to be removed
-     * @throws IllegalArgumentException if the index is not between 0 and 15 (inclusive)
+     * @throws IllegalArgumentException if the index is not between 0 and 15 (inclusive), or if the line does not exist
      */
     public void removeLine(final int index) {
         if (isUnCorrectIndex(index)) {
             throw new IllegalArgumentException("Index must be between 0 and 15 !");
         }
 
-        final String score = getScore(index);
+        final int slot = this.slots[index];
 
-        final ScoreboardTeamPacket team = getScoreboardTeamPacket(index, score);
+        if (slot < 0) {
+            throw new IllegalArgumentException("Line index " + index + " does not exist!");
+        }
 
-        this.connection.sendPacket(team.build());
-        commitScore(index, score, PacketPlayOutScoreboardScore.EnumScoreboardAction.REMOVE);
+        removeSlot(slot);
+    }
 
-        this.entries[index] = null;
-        this.keys[index] = null;
+    /**
+     * Removes the line held by a slot.
+     *
+     * @param slot the slot holding the line
+     */
+    private void removeSlot(final int slot) {
+        this.transport.removeTeam(slot);
+        this.transport.removeScore(slot, this.entries[slot]);
+
+        this.slots[this.positions[slot]] = -1;
+        this.positions[slot] = -1;
+        this.entries[slot] = null;
+        this.keys[slot] = null;
+        this.lineKeys[slot] = null;
+
+        markDisplayed(slot, null, null);
     }
 
     /**
-     * Returns a ScoreboardTeamPacket object for a given index and score.
+     * Sends the changes creating the whole current state of this scoreboard to another transport,
+     * as if every line had just been set. Nothing is sent if the objective does not exist.
      *
-     * @param index the index of the line
-     * @param score the score for the line
-     * @return the ScoreboardTeamPacket object
-     * @throws IllegalArgumentException if the line index does not exist
+     * @param target the transport receiving the changes. Cannot be null.
      */
-    private ScoreboardTeamPacket getScoreboardTeamPacket(final int index, final @Nonnull String score) {
-        if (!hasLine(index)) {
-            throw new IllegalArgumentException("Line index " + index + " does not exist!");
+    void replay(final @Nonnull ScoreboardTransport target) {
+        if (!hasObjective) {
+            return;
         }
 
-        final String name = Integer.toString(index);
+        target.createObjective(title);
+        target.displayObjective(displaySlot);
 
-        final ScoreboardTeamPacket team = new ScoreboardTeamPacket();
+        for (int i = 0; i < entries.length; i++) {
+            final String entry = entries[i];
 
-        team.setName(name);
-        team.setTeamAction(ScoreboardAction.DELETE);
-        team.setCustomName(name);
-        team.setPrefix("");
-        team.setSuffix("");
-        team.setVisibility(ScoreboardTeamBase.EnumNameTagVisibility.ALWAYS);
-        team.setCollision();
-        team.setTeamColor(EnumChatFormat.RESET);
-        team.setEntry(score);
+            if (entry == null) {
+                continue;
+            }
+
+            target.setScore(positions[i], entry);
+            target.createTeam(i, prefixes[i], suffixes[i], entry);
+        }
+    }
+
+    /**
+     * Sends the changes removing the whole current state of this scoreboard to another transport,
+     * without changing the state of this scoreboard.
+     *
+     * @param target the transport receiving the changes. Cannot be null.
+     */
+    void clear(final @Nonnull ScoreboardTransport target) {
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i] != null) {
+                target.removeTeam(i);
+            }
+        }
 
-        return team;
+        if (hasObjective) {
+            target.removeObjective();
+        }
     }
 
     /**
      * Destroys the KaxxScoreboard instance.
-     * This method removes all entries from the scoreboard, sends a packet to delete
-     * the scoreboard objective, and clears the display packet.
+     * This method removes all entries from the scoreboard and sends a packet to delete
+     * the scoreboard objective, which also clears its display slot on the client.
      */
     public void destroy() {
         this.hasObjective = false;
+        this.title = null;
+        this.rawTitle = null;
+
+        beginUpdate();
 
         for (int i = 0; i < entries.length; i++) {
             if (entries[i] == null) {
                 continue;
             }
 
-            removeLine(i);
+            removeSlot(i);
         }
 
-        final ScoreboardObjectivePacket packet = new ScoreboardObjectivePacket();
-
-        packet.setObjectiveName("board");
-        packet.setBoardAction(ScoreboardAction.DELETE);
-        packet.setTitle("");
-        packet.setDisplayType(IScoreboardCriteria.EnumScoreboardHealthDisplay.INTEGER);
+        this.transport.removeObjective();
 
-        this.connection.sendPacket(packet.build());
-        this.connection.sendPacket(displayPacket);
+        endUpdate();
     }
 
 }
@@ -0,0 +1,233 @@
+package ca.kaxx.board;
+
+import ca.kaxx.board.adapter.KaxxScoreboardGroupAdapter;
+import ca.kaxx.board.registry.KaxxScoreboardEntry;
+import ca.kaxx.board.transport.InMemoryScoreboardTransport;
+import ca.kaxx.board.transport.ScoreboardOperation;
+import ca.kaxx.board.transport.ScoreboardTransport;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * A scoreboard shared by a group of players, for example every player of an arena.
+ * <p>
+ * The board of the group is rendered once per refresh on a detached {@link KaxxScoreboard}, and the changes it
+ * produces are sent to every member, each packet or frame being built once for all of them, so that the cost of
+ * a refresh depends on the number of groups rather than on the number of players. While a player is a member of a
+ * group, their own scoreboard is not rendered.
+ * <p>
+ * Players join and leave through {@link KaxxScoreboardHandler#joinGroup} and {@link KaxxScoreboardHandler#leaveGroup}.
+ * A player joining a group receives the whole current board of the group on the next tick.
+ */
+@Getter
+public final class KaxxScoreboardGroup {
+
+    /**
+     * The name of the group.
+     */
+    private final String name;
+
+    /**
+     * The adapter providing the title and lines of the group, or null if the board is only changed through
+     * {@link #getBoard()}.
+     */
+    @Setter
+    private volatile KaxxScoreboardGroupAdapter adapter;
+
+    /**
+     * The detached board rendered for the whole group.
+     * It is rendered by the update task and should not be changed from another thread.
+     */
+    private final KaxxScoreboard board;
+
+    /**
+     * The transport of the board, keeping its changes until they are broadcast.
+     */
+    @Getter(AccessLevel.NONE)
+    private final InMemoryScoreboardTransport transport;
+
+    /**
+     * The members which currently display the board of the group.
+     */
+    @Getter(AccessLevel.NONE)
+    private final Set<KaxxScoreboardEntry> members;
+
+    /**
+     * The entries which asked to join the group and have not received its board yet.
+     */
+    @Getter(AccessLevel.NONE)
+    private final Queue<KaxxScoreboardEntry> pending;
+
+    /**
+     * Creates an empty group.
+     *
+     * @param name the name of the group. Cannot be null.
+     */
+    KaxxScoreboardGroup(final @Nonnull String name) {
+        this.name = name;
+        this.transport = new InMemoryScoreboardTransport();
+        this.board = new KaxxScoreboard(this.transport);
+        this.members = ConcurrentHashMap.newKeySet();
+        this.pending = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Returns the UUIDs of the members which currently display the board of the group.
+     *
+     * @return an unmodifiable copy of the UUIDs of the members
+     */
+    public Set<UUID> getMembers() {
+        final Set<UUID> members = new HashSet<>();
+
+        for (final KaxxScoreboardEntry entry : this.members) {
+            members.add(entry.getUniqueId());
+        }
+
+        return Collections.unmodifiableSet(members);
+    }
+
+    /**
+     * Returns the number of members which currently display the board of the group.
+     *
+     * @return the number of members
+     */
+    public int size() {
+        return this.members.size();
+    }
+
+    /**
+     * Asks for an entry to receive the board of the group on the next tick.
+     * The entry must already point to this group.
+     *
+     * @param entry the entry joining the group. Cannot be null.
+     */
+    void request(final @Nonnull KaxxScoreboardEntry entry) {
+        this.pending.add(entry);
+    }
+
+    /**
+     * Clears the board of the group for the members which left it or disconnected.
+     * Their own scoreboard is rendered again from scratch on their next refresh.
+     * This is called by the update task, before any group handles its joins.
+     */
+    public void synchronizeLeaves() {
+        for (final KaxxScoreboardEntry entry : this.members) {
+            if (entry.getGroup() == this && entry.isConnected()) {
+                continue;
+            }
+
+            this.members.remove(entry);
+
+            if (!entry.isConnected()) {
+                continue;
+            }
+
+            send(entry, this.board::clear);
+
+            final KaxxScoreboardHandle handle = entry.getHandle();
+
+            if (handle != null) {
+                handle.invalidate();
+            }
+        }
+    }
+
+    /**
+     * Sends the whole board of the group to the entries which joined it, after clearing their own scoreboard.
+     * This is called by the update task, once every group has handled its leaves.
+     */
+    public void synchronizeJoins() {
+        KaxxScoreboardEntry entry;
+
+        while ((entry = this.pending.poll()) != null) {
+            if (entry.getGroup() != this || !entry.isConnected() || this.members.contains(entry)) {
+                continue;
+            }
+
+            final KaxxScoreboard scoreboard = entry.getScoreboard();
+
+            if (scoreboard.isHasObjective()) {
+                scoreboard.destroy();
+            }
+
+            send(entry, this.board::replay);
+
+            this.members.add(entry);
+        }
+    }
+
+    /**
+     * Sends the changes produced by the board of the group since the last broadcast to every member.
+     * This is called by the update task once the board has been rendered.
+     */
+    public void broadcast() {
+        final ScoreboardOperation[] operations = this.transport.drain();
+
+        if (operations.length == 0) {
+            return;
+        }
+
+        try {
+            for (final KaxxScoreboardEntry entry : this.members) {
+                if (!entry.isConnected()) {
+                    continue;
+                }
+
+                send(entry, transport -> {
+                    for (final ScoreboardOperation operation : operations) {
+                        transport.send(operation);
+                    }
+                });
+            }
+        } finally {
+            for (final ScoreboardOperation operation : operations) {
+                operation.release();
+            }
+        }
+    }
+
+    /**
+     * Clears the board of the group for every member, and removes them from the group.
+     */
+    void clearMembers() {
+        for (final KaxxScoreboardEntry entry : this.members) {
+            if (entry.isConnected()) {
+                send(entry, this.board::clear);
+            }
+        }
+
+        this.members.clear();
+        this.pending.clear();
+    }
+
+    /**
+     * Sends changes through the transport of a member, flushing them at once.
+     *
+     * @param entry  the member receiving the changes. Cannot be null.
+     * @param writer the action sending the changes through the transport. Cannot be null.
+     */
+    private static void send(final @Nonnull KaxxScoreboardEntry entry,
+                             final @Nonnull Consumer<ScoreboardTransport> writer) {
+        final ScoreboardTransport transport = entry.getScoreboard().getTransport();
+
+        transport.begin();
+
+        try {
+            writer.accept(transport);
+        } finally {
+            transport.flush();
+        }
+    }
+
+}
@@ -0,0 +1,216 @@
+package ca.kaxx.board;
+
+import com.google.common.base.Preconditions;
+import org.bukkit.ChatColor;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A push-style handle on the scoreboard of a player.
+ * <p>
+ * Instead of having an adapter polled on every refresh, plugins set the title and lines of the board whenever
+ * their data changes. Every change marks its slot dirty, and only the dirty slots are rendered on the next refresh
+ * of the board. The handle can be used from any thread.
+ * <p>
+ * Like {@link KaxxScoreboard}, line indexes go from 0 (bottom) to 14 (top), and alternate color codes
+ * using '&amp;' are translated.
+ */
+public final class KaxxScoreboardHandle {
+
+    /**
+     * The dirty bit of the title, the dirty bits of the lines being their index.
+     */
+    private static final int TITLE = 1 << 15;
+
+    /**
+     * The lines of the board, indexed by line index. A null line is not displayed.
+     */
+    private final AtomicReferenceArray<String> lines;
+
+    /**
+     * The dirty bits of the title and lines which have not been rendered yet.
+     */
+    private final AtomicInteger dirty;
+
+    /**
+     * The title of the board, or null if it has not been set yet.
+     */
+    private volatile String title;
+
+    /**
+     * Creates an empty handle.
+     */
+    KaxxScoreboardHandle() {
+        this.lines = new AtomicReferenceArray<>(15);
+        this.dirty = new AtomicInteger();
+    }
+
+    /**
+     * Sets the title of the board.
+     *
+     * @param title the title to set. Must contain 0 to 48 characters once translated.
+     * @throws IllegalArgumentException if the title contains more than 48 characters
+     */
+    public void setTitle(final @Nonnull String title) {
+        Preconditions.checkArgument(title.length() <= 48, "Title must contain 0 to 48 characters !");
+
+        this.title = title;
+        markDirty(TITLE);
+    }
+
+    /**
+     * Sets the content of a line.
+     *
+     * @param index the index of the line. Must be between 0 and 14.
+     * @param line  the content of the line. Must contain 0 to 48 characters once translated.
+     * @throws IllegalArgumentException if the index is out of bounds or the line is too long
+     */
+    public void setLine(final int index, final @Nonnull String line) {
+        checkIndex(index);
+        Preconditions.checkArgument(line.length() <= 48, "Line %s must contain 0 to 48 characters !", index);
+
+        this.lines.set(index, line);
+        markDirty(1 << index);
+    }
+
+    /**
+     * Removes a line.
+     *
+     * @param index the index of the line. Must be between 0 and 14.
+     * @throws IllegalArgumentException if the index is out of bounds
+     */
+    public void removeLine(final int index) {
+        checkIndex(index);
+
+        if (this.lines.getAndSet(index, null) != null) {
+            markDirty(1 << index);
+        }
+    }
+
+    /**
+     * Replaces every line, in the same order as {@link ca.kaxx.board.adapter.KaxxScoreboardAdapter#getLines}:
+     * the first line is displayed at the top. The lines below the new ones are removed.
+     *
+     * @param lines the lines to display, from top to bottom. Must contain 0 to 15 lines.
+     * @throws IllegalArgumentException if there are more than 15 lines or if a line is too long
+     */
+    public void setLines(final @Nonnull Collection<String> lines) {
+        final int size = lines.size();
+
+        Preconditions.checkArgument(size <= 15, "A scoreboard cannot display more than 15 lines !");
+
+        int index = size;
+
+        for (final String line : lines) {
+            setLine(--index, line);
+        }
+
+        for (int i = size; i < 15; i++) {
+            removeLine(i);
+        }
+    }
+
+    /**
+     * Removes every line.
+     */
+    public void clear() {
+        for (int i = 0; i < 15; i++) {
+            removeLine(i);
+        }
+    }
+
+    /**
+     * Checks if the handle has changes which have not been rendered yet.
+     *
+     * @return true if the handle has dirty slots, false otherwise
+     */
+    public boolean isDirty() {
+        return this.dirty.get() != 0;
+    }
+
+    /**
+     * Renders the dirty slots on the given scoreboard. This is called by the update task when the board is due.
+     * The lines are kept dirty until a title has been set, since they cannot be displayed without an objective.
+     *
+     * @param scoreboard the scoreboard to render on. Cannot be null.
+     */
+    public void apply(final @Nonnull KaxxScoreboard scoreboard) {
+        final int dirty = this.dirty.getAndSet(0);
+
+        if (dirty == 0) {
+            return;
+        }
+
+        final String title = this.title;
+
+        if (title == null && !scoreboard.isHasObjective()) {
+            markDirty(dirty);
+            return;
+        }
+
+        if ((dirty & TITLE) != 0 && title != null) {
+            scoreboard.setTitle(translate(title));
+        }
+
+        for (int i = 0; i < 15; i++) {
+            if ((dirty & (1 << i)) == 0) {
+                continue;
+            }
+
+            final String line = this.lines.get(i);
+
+            if (line != null) {
+                scoreboard.setLine(i, translate(line));
+            } else if (scoreboard.hasLine(i)) {
+                scoreboard.removeLine(i);
+            }
+        }
+    }
+
+    /**
+     * Marks the title and every line dirty, so that the whole board is rendered again on the next refresh.
+     * This is used by the update task and the groups when the scoreboard has been cleared client-side.
+     */
+    public void invalidate() {
+        markDirty(TITLE | (TITLE - 1));
+    }
+
+    /**
+     * Marks slots dirty.
+     *
+     * @param bits the dirty bits of the slots
+     */
+    private void markDirty(final int bits) {
+        int current;
+
+        do {
+            current = this.dirty.get();
+        } while (!this.dirty.compareAndSet(current, current | bits));
+    }
+
+    /**
+     * Checks if the given index is a valid line index.
+     *
+     * @param index the index to check
+     * @throws IllegalArgumentException if the index is not between 0 and 14 (inclusive)
+     */
+    private void checkIndex(final int index) {
+        if (index < 0 || index > 14) {
+            throw new IllegalArgumentException("Index must be between 0 and 15 !");
+        }
+    }
+
+    /**
+     * Translates a given text by replacing color codes with the specified format.
+     *
+     * @param text The text to be translated.
+     * @return The translated text with color codes replaced.
+     */
+    private String translate(final @Nonnull String text) {
+        return ChatColor.translateAlternateColorCodes('&', text);
+    }
+
+}
@@ -1,22 +1,54 @@
 package ca.kaxx.board;
 
 import ca.kaxx.board.adapter.KaxxScoreboardAdapter;
+import ca.kaxx.board.adapter.KaxxScoreboardAsyncAdapter;
 import ca.kaxx.board.animation.ScoreboardAnimation;
+import ca.kaxx.board.animation.ScoreboardAnimations;
+import ca.kaxx.board.animation.TickClock;
+import ca.kaxx.board.cache.ScoreboardLineCache;
+import ca.kaxx.board.commands.KaxxScoreboardStatsCommand;
 import ca.kaxx.board.listeners.KaxxScoreboardListener;
+import ca.kaxx.board.metrics.ScoreboardMetrics;
+import ca.kaxx.board.registry.KaxxScoreboardEntry;
+import ca.kaxx.board.registry.KaxxScoreboardRegistry;
 import ca.kaxx.board.task.KaxxScoreboardUpdateTask;
+import ca.kaxx.board.transport.NmsScoreboardTransport;
+import ca.kaxx.board.transport.ScoreboardTransport;
+import ca.kaxx.board.transport.ScoreboardTransportFactory;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Maps;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import net.minecraft.server.v1_8_R3.PlayerConnection;
 import org.bukkit.Bukkit;
+import org.bukkit.craftbukkit.v1_8_R3.CraftServer;
+import org.bukkit.craftbukkit.v1_8_R3.entity.CraftPlayer;
 import org.bukkit.entity.Player;
 import org.bukkit.event.HandlerList;
 import org.bukkit.plugin.Plugin;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
 
 
 /**
@@ -32,22 +64,82 @@ import java.util.UUID;
 public final class KaxxScoreboardHandler {
 
     /**
-     * Represents a map of scoreboards associated with player UUIDs.
+     * The number of consecutive adapter calls which must exceed their time budget for a scoreboard
+     * before it is reported.
+     */
+    public static final int ADAPTER_OFFENDER_THRESHOLD = 3;
+
+    /**
+     * The maximum time {@link #cleanup()} waits for the running update of the update task, in milliseconds.
+     */
+    public static final long STOP_TIMEOUT_MILLIS = 1000L;
+
+    /**
+     * The maximum time, in milliseconds, an asynchronous adapter call may take when the handler has no adapter
+     * timeout. Past it, the call counts as an overrun and the adapter is called again.
+     */
+    public static final long ASYNC_ADAPTER_TIMEOUT_MILLIS = 5000L;
+
+    /**
+     * The plugin which created this handler, or null if it is not registered on a server.
+     */
+    @Setter(AccessLevel.NONE)
+    private final Plugin plugin;
+
+    /**
+     * Represents the registry of scoreboards associated with player UUIDs.
      *
-     * <p>This variable stores a mapping between UUIDs and their corresponding KaxxScoreboard instances.</p>
+     * <p>Each entry stores the KaxxScoreboard of a player along with the player and its connection.
+     * It can be modified from any thread while the update task iterates it.</p>
      */
-    private final Map<UUID, KaxxScoreboard> scoreboards;
+    private final KaxxScoreboardRegistry registry;
     
     /**
      * Represents an adapter for the KaxxScoreboardHandler class.
      * This adapter is responsible for providing the title and lines for the scoreboard of a player.
      */
-    private KaxxScoreboardAdapter adapter;
+    @Setter(AccessLevel.NONE)
+    private volatile KaxxScoreboardAdapter adapter;
+
+    /**
+     * The asynchronous adapter providing the title and lines for the scoreboard of a player,
+     * used instead of {@link #adapter} when it is set.
+     */
+    @Setter(AccessLevel.NONE)
+    private volatile KaxxScoreboardAsyncAdapter asyncAdapter;
+
+    /**
+     * The generation of the adapter, increased every time an adapter is set,
+     * so that the results of the calls made to a previous adapter are dropped.
+     */
+    @Setter(AccessLevel.NONE)
+    private volatile long adapterGeneration;
     
     /**
-     * The refresh rate for updating the scoreboard.
+     * The refresh rate, in ticks, for updating the scoreboards which do not have their own.
+     * It can be changed at any time and applies from the next tick.
+     */
+    @Setter(AccessLevel.NONE)
+    private volatile long refreshRate;
+
+    /**
+     * The number of ticks without movement nor interaction after which a player is idle, or 0 if the scoreboards of
+     * idle players are not throttled.
+     */
+    @Setter(AccessLevel.NONE)
+    private volatile long idleAfter;
+
+    /**
+     * The refresh rate, in ticks, of the scoreboards of idle players, unless their own refresh rate is slower.
      */
-    private long refreshRate;
+    @Setter(AccessLevel.NONE)
+    private volatile long idleRefreshRate;
+
+    /**
+     * The bytes the scoreboard of a player may send per second, or 0 if they are not limited.
+     */
+    @Setter(AccessLevel.NONE)
+    private volatile long maxBytesPerSecond;
 
     /**
      * A listener class for scoreboard events.
@@ -58,33 +150,220 @@ public final class KaxxScoreboardHandler {
      */
     private final KaxxScoreboardUpdateTask updateTask;
 
+    /**
+     * The single animation advanced on each refresh.
+     *
+     * @deprecated use the named {@link #animations} instead.
+     */
+    @Deprecated
     private ScoreboardAnimation scoreboardAnimation;
 
+    /**
+     * The tick counter of the handler, advanced by the update task, from which the animation frames are computed.
+     */
+    private final TickClock clock;
+
+    /**
+     * The named animations which can be used in the titles and lines of the scoreboards.
+     */
+    private final ScoreboardAnimations animations;
+
+    /**
+     * The cache of the translated and split lines provided by the adapter, shared by every scoreboard,
+     * or null to translate and split every line on each refresh.
+     */
+    private volatile ScoreboardLineCache lineCache;
+
+    /**
+     * Creates the transport of each new scoreboard, sending NMS packets by default.
+     */
+    private volatile ScoreboardTransportFactory transportFactory;
+
+    /**
+     * The metrics of the update task and of the packets sent, which can be disabled.
+     */
+    private final ScoreboardMetrics metrics;
+
+    /**
+     * The stats command registered through {@link #registerStatsCommand(String)}, or null if there is none.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private KaxxScoreboardStatsCommand statsCommand;
+
+    /**
+     * The groups sharing a scoreboard, keyed by name.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final ConcurrentMap<String, KaxxScoreboardGroup> groups;
+
+    /**
+     * The unmodifiable view of the groups, created once since it is read on every tick.
+     */
+    @Getter(AccessLevel.NONE)
+    private final Collection<KaxxScoreboardGroup> groupsView;
+
+    /**
+     * The groups which have been removed, whose board still has to be cleared for their members by the update task.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final Queue<KaxxScoreboardGroup> removedGroups;
+
+    /**
+     * The entries which have been removed, whose scoreboard still has to be destroyed by the update task.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final Queue<KaxxScoreboardEntry> removedEntries;
+
+    /**
+     * The executor rendering the shards of players in parallel,
+     * or null to update every player on the thread of the update task.
+     */
+    @Setter(AccessLevel.NONE)
+    private volatile Executor updateExecutor;
+
+    /**
+     * The number of shards the players are split into when they are updated in parallel.
+     */
+    @Setter(AccessLevel.NONE)
+    private volatile int updateShards;
+
+    /**
+     * The time budget, in nanoseconds, of the adapter calls of a scoreboard, or 0 if the adapter is called on the
+     * thread of the update task without a budget.
+     */
+    @Setter(AccessLevel.NONE)
+    private volatile long adapterTimeout;
+
+    /**
+     * The executor running the adapter calls while they have a time budget, or null if they do not.
+     */
+    @Setter(AccessLevel.NONE)
+    private volatile Executor adapterExecutor;
+
+    /**
+     * The executor created by {@link #setAdapterTimeout(long, TimeUnit)}, which is shut down along with the budget.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private ExecutorService ownedAdapterExecutor;
+
+    /**
+     * The executor created by {@link #enableParallelUpdates(int)}, which is shut down along with the parallel updates.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private ExecutorService ownedUpdateExecutor;
+
+    /**
+     * Creates a handler which is neither registered nor scheduled.
+     * Its update task has to be run manually, which is used to drive the handler without a server.
+     */
+    KaxxScoreboardHandler() {
+        this(null);
+    }
+
     /**
      * A class that handles the creation and management of scoreboards for players.
+     * The handler is registered and scheduled on the server of the plugin, if there is one.
+     *
+     * @param plugin the plugin creating the handler, or null to create a headless handler.
      */
-    private KaxxScoreboardHandler(final @Nonnull Plugin plugin) {
-        this.scoreboards = Maps.newHashMap();
+    private KaxxScoreboardHandler(final @Nullable Plugin plugin) {
+        this.plugin = plugin;
+        this.registry = new KaxxScoreboardRegistry();
+        this.metrics = new ScoreboardMetrics();
+        this.groups = new ConcurrentHashMap<>();
+        this.groupsView = Collections.unmodifiableCollection(this.groups.values());
+        this.clock = new TickClock();
+        this.animations = new ScoreboardAnimations(this.clock);
+        this.removedGroups = new ConcurrentLinkedQueue<>();
+        this.removedEntries = new ConcurrentLinkedQueue<>();
 
         this.refreshRate = 2;
+        this.updateShards = 1;
 
-        Bukkit.getPluginManager().registerEvents(this.listener = new KaxxScoreboardListener(this), plugin);
+        this.lineCache = new ScoreboardLineCache();
+        this.transportFactory = NmsScoreboardTransport::of;
 
+        this.listener = new KaxxScoreboardListener(this);
         this.updateTask = new KaxxScoreboardUpdateTask(this);
-        this.updateTask.runTaskTimerAsynchronously(plugin, 0L, refreshRate);
+
+        if (plugin == null) {
+            return;
+        }
+
+        Bukkit.getPluginManager().registerEvents(this.listener, plugin);
+
+        this.updateTask.runTaskTimerAsynchronously(plugin, 0L, 1L);
     }
 
     /**
      * Removes all references and cancels the update task associated with this KaxxScoreboardHandler instance.
      * Should be called when the scoreboard functionality is no longer needed.
+     * <p>
+     * The update task is stopped before any scoreboard is destroyed, waiting for its running update if any,
+     * so that no scoreboard is destroyed while it is being rendered. The wait happens before the handler is locked,
+     * since the running update may call the handler, and lasts at most {@value #STOP_TIMEOUT_MILLIS}ms: past it, the
+     * scoreboards are unregistered without being destroyed client-side.
      */
-    public synchronized void cleanup() {
-        this.adapter = null;
-        HandlerList.unregisterAll(this.listener);
+    public void cleanup() {
+        if (this.plugin != null) {
+            this.updateTask.cancel();
+        }
+
+        final boolean stopped = this.updateTask.stop(STOP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+        if (!stopped) {
+            getLogger().warning("The scoreboard update task did not complete within " + STOP_TIMEOUT_MILLIS
+                    + "ms, the scoreboards are not destroyed client-side");
+        }
+
+        synchronized (this) {
+            this.adapter = null;
+            this.asyncAdapter = null;
+            this.adapterGeneration++;
+            HandlerList.unregisterAll(this.listener);
+
+            final KaxxScoreboardEntry[] entries = this.registry.clear();
+
+            if (stopped) {
+                KaxxScoreboardGroup removedGroup;
 
-        this.scoreboards.values().forEach(KaxxScoreboard::destroy);
-        this.scoreboards.clear();
-        this.updateTask.cancel();
+                while ((removedGroup = this.removedGroups.poll()) != null) {
+                    removedGroup.synchronizeLeaves();
+                }
+
+                for (final KaxxScoreboardGroup group : this.groups.values()) {
+                    group.clearMembers();
+                }
+
+                KaxxScoreboardEntry removed;
+
+                while ((removed = this.removedEntries.poll()) != null) {
+                    removed.destroyScoreboard();
+                }
+
+                for (final KaxxScoreboardEntry entry : entries) {
+                    entry.destroyScoreboard();
+                }
+            }
+
+            this.removedGroups.clear();
+            this.groups.clear();
+            this.removedEntries.clear();
+
+            disableParallelUpdates();
+            disableAdapterTimeout();
+
+            if (this.statsCommand != null) {
+                this.statsCommand.unregister(((CraftServer) Bukkit.getServer()).getCommandMap());
+                this.statsCommand = null;
+            }
+        }
     }
 
     /**
@@ -103,9 +382,412 @@ public final class KaxxScoreboardHandler {
      * @param adapter the adapter to set. Cannot be null.
      * @throws NullPointerException if the adapter is null.
      */
-    public void setAdapter(final @Nonnull KaxxScoreboardAdapter adapter) {
+    public synchronized void setAdapter(final @Nonnull KaxxScoreboardAdapter adapter) {
         Preconditions.checkNotNull(adapter, "Adapter cannot be null");
         this.adapter = adapter;
+        this.asyncAdapter = null;
+        this.adapterGeneration++;
+    }
+
+    /**
+     * Sets an asynchronous adapter for the KaxxScoreboardHandler, replacing the synchronous one if any.
+     *
+     * @param adapter the adapter to set. Cannot be null.
+     * @throws NullPointerException if the adapter is null.
+     */
+    public synchronized void setAdapter(final @Nonnull KaxxScoreboardAsyncAdapter adapter) {
+        Preconditions.checkNotNull(adapter, "Adapter cannot be null");
+        this.asyncAdapter = adapter;
+        this.adapter = null;
+        this.adapterGeneration++;
+    }
+
+    /**
+     * Sets the factory creating the transport of each new scoreboard, for example {@code RawScoreboardTransport::of}
+     * to write encoded frames straight into the channels of the players.
+     * The scoreboards which already exist keep their transport.
+     *
+     * @param transportFactory the factory to set. Cannot be null.
+     * @throws NullPointerException if the factory is null.
+     */
+    public void setTransportFactory(final @Nonnull ScoreboardTransportFactory transportFactory) {
+        Preconditions.checkNotNull(transportFactory, "Transport factory cannot be null");
+        this.transportFactory = transportFactory;
+    }
+
+    /**
+     * Sets the refresh rate of the scoreboards which do not have their own.
+     * The new rate applies from the next tick.
+     *
+     * @param refreshRate the refresh rate, in ticks. Must be positive.
+     * @throws IllegalArgumentException if the refresh rate is not positive
+     */
+    public void setRefreshRate(final long refreshRate) {
+        Preconditions.checkArgument(refreshRate > 0, "Refresh rate must be positive");
+        this.refreshRate = refreshRate;
+    }
+
+    /**
+     * Sets the refresh rate of the scoreboard of a player, for example a slower rate for AFK or lobby players.
+     * The new rate applies from the next tick.
+     *
+     * @param uniqueId    the UUID of the player
+     * @param refreshRate the refresh rate, in ticks, or 0 to use the refresh rate of the handler. Cannot be negative.
+     * @throws IllegalArgumentException if the refresh rate is negative or if the player does not have a scoreboard
+     */
+    public void setRefreshRate(final @Nonnull UUID uniqueId, final long refreshRate) {
+        Preconditions.checkArgument(refreshRate >= 0, "Refresh rate cannot be negative");
+
+        final KaxxScoreboardEntry entry = this.registry.get(uniqueId);
+
+        if (entry == null) {
+            throw new IllegalArgumentException("Player with UUID " + uniqueId + " does not have a scoreboard");
+        }
+
+        entry.setRefreshRate(refreshRate);
+    }
+
+    /**
+     * Limits the bytes the scoreboard of each player may send per second, before compression and framing.
+     * A scoreboard which used its budget is not rendered until the budget refills, and then sends the latest state
+     * in a single update. The bucket of each scoreboard holds one second of bytes, so short bursts are allowed.
+     * <p>
+     * The bytes are only known if the transport can measure them; the NMS transport cannot on servers where the
+     * packets are built through the serializer.
+     *
+     * @param maxBytesPerSecond the bytes per second, or 0 to remove the limit. Cannot be negative.
+     * @throws IllegalArgumentException if the bytes per second are negative
+     */
+    public void setMaxBytesPerSecond(final long maxBytesPerSecond) {
+        Preconditions.checkArgument(maxBytesPerSecond >= 0, "Max bytes per second cannot be negative");
+        this.maxBytesPerSecond = maxBytesPerSecond;
+    }
+
+    /**
+     * Pauses the updates of the scoreboard of a player, for example while they are in a cutscene or while another
+     * plugin hides their scoreboard. The scoreboard keeps what it displays, and neither the adapter nor the handle
+     * of the player is rendered until it is resumed. A member of a group keeps receiving the board of the group.
+     *
+     * @param uniqueId the UUID of the player
+     * @throws IllegalArgumentException if the player does not have a scoreboard
+     */
+    public void pause(final @Nonnull UUID uniqueId) {
+        final KaxxScoreboardEntry entry = this.registry.get(uniqueId);
+
+        if (entry == null) {
+            throw new IllegalArgumentException("Player with UUID " + uniqueId + " does not have a scoreboard");
+        }
+
+        entry.setPaused(true);
+    }
+
+    /**
+     * Resumes the updates of the scoreboard of a player. On its next refresh, the scoreboard catches up with the
+     * current lines in a single update, which only sends what changed while it was paused.
+     * Resuming counts as an activity of the player for the idle throttle.
+     *
+     * @param uniqueId the UUID of the player
+     * @throws IllegalArgumentException if the player does not have a scoreboard
+     */
+    public void resume(final @Nonnull UUID uniqueId) {
+        final KaxxScoreboardEntry entry = this.registry.get(uniqueId);
+
+        if (entry == null) {
+            throw new IllegalArgumentException("Player with UUID " + uniqueId + " does not have a scoreboard");
+        }
+
+        entry.markActive(this.clock.getTick());
+        entry.setPaused(false);
+    }
+
+    /**
+     * Checks if the updates of the scoreboard of a player are paused.
+     *
+     * @param uniqueId the UUID of the player
+     * @return true if the player has a paused scoreboard, false otherwise
+     */
+    public boolean isPaused(final @Nonnull UUID uniqueId) {
+        final KaxxScoreboardEntry entry = this.registry.get(uniqueId);
+
+        return entry != null && entry.isPaused();
+    }
+
+    /**
+     * Records an activity of a player, which brings their scoreboard back to its refresh rate if they were idle.
+     * Movements, interactions, chat messages and commands are recorded by the listener of the handler, and plugins
+     * can record their own activities through this method.
+     *
+     * @param uniqueId the UUID of the player
+     */
+    public void markActive(final @Nonnull UUID uniqueId) {
+        final KaxxScoreboardEntry entry = this.registry.get(uniqueId);
+
+        if (entry != null) {
+            entry.markActive(this.clock.getTick());
+        }
+    }
+
+    /**
+     * Refreshes the scoreboards of the players who have not moved nor interacted for a while at a slower rate.
+     * A player is no longer idle as soon as they move or interact, and their scoreboard is refreshed at its own rate
+     * again from the next tick. The players online when the throttle is enabled are considered active.
+     *
+     * @param idleAfter       the time without activity after which a player is idle. Must be at least one tick.
+     * @param unit            the unit of the time. Cannot be null.
+     * @param idleRefreshRate the refresh rate, in ticks, of the scoreboards of idle players. Must be positive.
+     * @throws IllegalArgumentException if the time is shorter than a tick or the refresh rate is not positive
+     */
+    public synchronized void enableIdleThrottle(final long idleAfter, final @Nonnull TimeUnit unit,
+                                                final long idleRefreshRate) {
+        Preconditions.checkNotNull(unit, "Unit cannot be null");
+
+        final long ticks = unit.toMillis(idleAfter) / 50;
+
+        Preconditions.checkArgument(ticks > 0, "Idle time must be at least one tick");
+        Preconditions.checkArgument(idleRefreshRate > 0, "Idle refresh rate must be positive");
+
+        final long tick = this.clock.getTick();
+
+        for (final KaxxScoreboardEntry entry : this.registry.snapshot()) {
+            entry.markActive(tick);
+        }
+
+        this.idleRefreshRate = idleRefreshRate;
+        this.idleAfter = ticks;
+    }
+
+    /**
+     * Refreshes the scoreboards of idle players at their own rate again.
+     */
+    public synchronized void disableIdleThrottle() {
+        this.idleAfter = 0;
+    }
+
+    /**
+     * Splits the players into shards which are updated in parallel on a dedicated {@link ForkJoinPool}.
+     * The packets of a player are still sent in order, since each player is updated by a single shard
+     * and an update waits for every shard to complete.
+     *
+     * @param parallelism the number of threads of the pool, which is also the number of shards. Must be positive.
+     * @throws IllegalArgumentException if the parallelism is not positive
+     */
+    public synchronized void enableParallelUpdates(final int parallelism) {
+        Preconditions.checkArgument(parallelism > 0, "Parallelism must be positive");
+
+        final ForkJoinPool pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+
+            thread.setName("KaxxBoard Update Worker #" + thread.getPoolIndex());
+            thread.setDaemon(true);
+
+            return thread;
+        }, null, false);
+
+        enableParallelUpdates(pool, parallelism);
+        this.ownedUpdateExecutor = pool;
+    }
+
+    /**
+     * Splits the players into shards which are updated in parallel on the given executor.
+     * The executor is not shut down by this handler.
+     *
+     * @param executor the executor rendering the shards. Cannot be null.
+     * @param shards   the number of shards the players are split into. Must be positive.
+     * @throws IllegalArgumentException if the number of shards is not positive
+     */
+    public synchronized void enableParallelUpdates(final @Nonnull Executor executor, final int shards) {
+        Preconditions.checkNotNull(executor, "Executor cannot be null");
+        Preconditions.checkArgument(shards > 0, "Shards must be positive");
+
+        disableParallelUpdates();
+
+        this.updateShards = shards;
+        this.updateExecutor = executor;
+    }
+
+    /**
+     * Updates every player on the thread of the update task again, and shuts down the executor created by
+     * {@link #enableParallelUpdates(int)} if any.
+     */
+    public synchronized void disableParallelUpdates() {
+        this.updateExecutor = null;
+        this.updateShards = 1;
+
+        if (this.ownedUpdateExecutor != null) {
+            this.ownedUpdateExecutor.shutdown();
+            this.ownedUpdateExecutor = null;
+        }
+    }
+
+    /**
+     * Registers a command displaying the metrics of this handler, with the permission {@code kaxxboard.stats}.
+     * The command is unregistered by {@link #cleanup()}.
+     *
+     * @param name the name of the command. Cannot be null.
+     * @throws IllegalStateException if the handler has not been created by a plugin or already registered the command
+     */
+    public synchronized void registerStatsCommand(final @Nonnull String name) {
+        Preconditions.checkState(this.plugin != null, "The handler has not been created by a plugin");
+        Preconditions.checkState(this.statsCommand == null, "The stats command is already registered");
+
+        this.statsCommand = new KaxxScoreboardStatsCommand(name, this);
+
+        ((CraftServer) Bukkit.getServer()).getCommandMap().register(this.plugin.getName(), this.statsCommand);
+    }
+
+    /**
+     * Returns the number of line updates sent to the clients, over every registered scoreboard.
+     *
+     * @return the number of sent updates
+     */
+    public long getSentUpdates() {
+        long sent = 0;
+
+        for (final KaxxScoreboardEntry entry : this.registry.snapshot()) {
+            sent += entry.getScoreboard().getSentUpdates();
+        }
+
+        return sent;
+    }
+
+    /**
+     * Returns the number of line updates skipped because the clients already displayed them,
+     * over every registered scoreboard.
+     *
+     * @return the number of skipped updates
+     */
+    public long getSkippedUpdates() {
+        long skipped = 0;
+
+        for (final KaxxScoreboardEntry entry : this.registry.snapshot()) {
+            skipped += entry.getScoreboard().getSkippedUpdates();
+        }
+
+        return skipped;
+    }
+
+    /**
+     * Returns the scoreboards whose last update took the longest, only recorded while the metrics are enabled.
+     *
+     * @param limit the maximum number of scoreboards to return. Cannot be negative.
+     * @return the entries of the slowest scoreboards, slowest first
+     */
+    public @Nonnull List<KaxxScoreboardEntry> getSlowestPlayers(final int limit) {
+        Preconditions.checkArgument(limit >= 0, "Limit cannot be negative");
+
+        final KaxxScoreboardEntry[] entries = this.registry.snapshot();
+        final long[] nanos = new long[entries.length];
+        final Integer[] order = new Integer[entries.length];
+
+        // The durations are copied first, since the update task keeps changing them while they are sorted
+        for (int i = 0; i < entries.length; i++) {
+            nanos[i] = entries[i].getLastUpdateNanos();
+            order[i] = i;
+        }
+
+        Arrays.sort(order, (first, second) -> Long.compare(nanos[second], nanos[first]));
+
+        final int size = Math.min(limit, entries.length);
+        final List<KaxxScoreboardEntry> slowest = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            slowest.add(entries[order[i]]);
+        }
+
+        return Collections.unmodifiableList(slowest);
+    }
+
+    /**
+     * Gives a time budget to the adapter calls of each scoreboard, run on a dedicated pool of daemon threads.
+     * <p>
+     * When the adapter exceeds the budget for a scoreboard, the scoreboard keeps its last lines and the call
+     * completes in the background: its result is rendered on the next refresh of the scoreboard, and no other call
+     * is made for it until then. A scoreboard whose adapter exceeds the budget {@value #ADAPTER_OFFENDER_THRESHOLD}
+     * times in a row is reported in the log and by {@link #getAdapterOffenders()}.
+     * <p>
+     * The budget also applies to the calls of an asynchronous adapter, which are not run on the pool: a call still
+     * in flight past it counts as an overrun and the adapter is called again.
+     *
+     * @param timeout the time budget. Must be positive.
+     * @param unit    the unit of the time budget. Cannot be null.
+     * @throws IllegalArgumentException if the time budget is not positive
+     */
+    public synchronized void setAdapterTimeout(final long timeout, final @Nonnull TimeUnit unit) {
+        Preconditions.checkArgument(timeout > 0, "Timeout must be positive");
+
+        final AtomicInteger threads = new AtomicInteger();
+        final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "KaxxBoard Adapter Worker #" + threads.getAndIncrement());
+
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        setAdapterTimeout(timeout, unit, executor);
+        this.ownedAdapterExecutor = executor;
+    }
+
+    /**
+     * Gives a time budget to the adapter calls of each scoreboard, run on the given executor.
+     * The executor is not shut down by this handler.
+     *
+     * @param timeout  the time budget. Must be positive.
+     * @param unit     the unit of the time budget. Cannot be null.
+     * @param executor the executor running the adapter calls. Cannot be null.
+     * @throws IllegalArgumentException if the time budget is not positive
+     * @see #setAdapterTimeout(long, TimeUnit)
+     */
+    public synchronized void setAdapterTimeout(final long timeout, final @Nonnull TimeUnit unit,
+                                               final @Nonnull Executor executor) {
+        Preconditions.checkArgument(timeout > 0, "Timeout must be positive");
+        Preconditions.checkNotNull(executor, "Executor cannot be null");
+
+        disableAdapterTimeout();
+
+        this.adapterExecutor = executor;
+        this.adapterTimeout = unit.toNanos(timeout);
+    }
+
+    /**
+     * Calls the adapter on the thread of the update task again, without a time budget, and shuts down the executor
+     * created by {@link #setAdapterTimeout(long, TimeUnit)} if any.
+     */
+    public synchronized void disableAdapterTimeout() {
+        this.adapterTimeout = 0;
+        this.adapterExecutor = null;
+
+        if (this.ownedAdapterExecutor != null) {
+            this.ownedAdapterExecutor.shutdown();
+            this.ownedAdapterExecutor = null;
+        }
+    }
+
+    /**
+     * Returns the scoreboards whose adapter exceeded its time budget on at least
+     * {@value #ADAPTER_OFFENDER_THRESHOLD} consecutive calls, and has not completed within it since.
+     *
+     * @return the entries of the offending scoreboards
+     */
+    public @Nonnull List<KaxxScoreboardEntry> getAdapterOffenders() {
+        final List<KaxxScoreboardEntry> offenders = new ArrayList<>();
+
+        for (final KaxxScoreboardEntry entry : this.registry.snapshot()) {
+            if (entry.getAdapterOverruns() >= ADAPTER_OFFENDER_THRESHOLD) {
+                offenders.add(entry);
+            }
+        }
+
+        return offenders;
+    }
+
+    /**
+     * Retrieves the logger the handler reports to.
+     *
+     * @return the logger of the plugin, or a logger of the library if the handler has not been created by a plugin
+     */
+    public @Nonnull Logger getLogger() {
+        return this.plugin != null ? this.plugin.getLogger() : Logger.getLogger("KaxxBoard");
     }
 
     /**
@@ -125,32 +807,231 @@ public final class KaxxScoreboardHandler {
             throw new IllegalArgumentException("Player with UUID " + uniqueId + " is not online");
         }
 
-        this.scoreboards.put(uniqueId, new KaxxScoreboard(player));
+        createScoreboard(player);
+    }
+
+    /**
+     * Creates a scoreboard for the given player if one does not already exist.
+     *
+     * @param player the player. Cannot be null.
+     */
+    public void createScoreboard(final @Nonnull Player player) {
+        if (hasScoreboard(player.getUniqueId())) {
+            return;
+        }
+
+        createScoreboard(player, ((CraftPlayer) player).getHandle().playerConnection,
+                this.transportFactory.create(player));
+    }
+
+    /**
+     * Creates a scoreboard for the given player, sending its packets through the given connection.
+     *
+     * @param player     the player. Cannot be null.
+     * @param connection the connection of the player. Cannot be null.
+     */
+    void createScoreboard(final @Nonnull Player player, final @Nonnull PlayerConnection connection) {
+        createScoreboard(player, connection, new NmsScoreboardTransport(connection));
+    }
+
+    /**
+     * Creates a scoreboard for the given player, sending its changes through the given transport.
+     *
+     * @param player     the player. Cannot be null.
+     * @param connection the connection of the player. Cannot be null.
+     * @param transport  the transport of the scoreboard. Cannot be null.
+     */
+    void createScoreboard(final @Nonnull Player player, final @Nonnull PlayerConnection connection,
+                          final @Nonnull ScoreboardTransport transport) {
+        final KaxxScoreboard scoreboard = new KaxxScoreboard(transport);
+        final KaxxScoreboardEntry entry =
+                new KaxxScoreboardEntry(player, connection, scoreboard, this.registry.nextPhase());
+
+        transport.setMetrics(this.metrics);
+        entry.setLastActiveTick(this.clock.getTick());
+
+        this.registry.register(entry);
     }
 
     /**
      * Removes the scoreboard for a player with the given unique ID.
+     * The scoreboard is destroyed by the update task on its next tick, so that it is never destroyed while it is
+     * being rendered, and only client-side if the player is still connected.
      *
      * @param uniqueId the UUID of the player
-     * @throws IllegalArgumentException if the player is not online
-     * @throws NullPointerException if the KaxxScoreboard is null
      */
     public void removeScoreboard(final @Nonnull UUID uniqueId) {
-        if (!hasScoreboard(uniqueId)) {
+        final KaxxScoreboardEntry entry = this.registry.unregister(uniqueId);
+
+        if (entry == null) {
             return;
         }
 
-        final Player player = Bukkit.getPlayer(uniqueId);
+        entry.setGroup(null);
 
-        if (player == null) {
-            throw new IllegalArgumentException("Player with UUID " + uniqueId + " is not online");
+        this.removedEntries.add(entry);
+    }
+
+    /**
+     * Retrieves and removes the next entry removed through {@link #removeScoreboard(UUID)} whose scoreboard has not
+     * been destroyed yet. This is called by the update task.
+     *
+     * @return the removed entry, or null if there is none
+     */
+    public @Nullable KaxxScoreboardEntry pollRemovedEntry() {
+        return this.removedEntries.poll();
+    }
+
+    /**
+     * Creates a group sharing a single scoreboard between its members.
+     *
+     * @param name the name of the group. Cannot be null.
+     * @return the created group
+     * @throws IllegalArgumentException if a group with the same name already exists
+     */
+    public @Nonnull KaxxScoreboardGroup createGroup(final @Nonnull String name) {
+        Preconditions.checkNotNull(name, "Name cannot be null");
+
+        final KaxxScoreboardGroup group = new KaxxScoreboardGroup(name);
+
+        if (this.groups.putIfAbsent(name, group) != null) {
+            throw new IllegalArgumentException("Group " + name + " already exists");
+        }
+
+        return group;
+    }
+
+    /**
+     * Retrieves the group with the given name.
+     *
+     * @param name the name of the group
+     * @return the group, or null if no group has this name
+     */
+    public @Nullable KaxxScoreboardGroup getGroup(final @Nonnull String name) {
+        return this.groups.get(name);
+    }
+
+    /**
+     * Retrieves every group of this handler.
+     *
+     * @return an unmodifiable view of the groups
+     */
+    public @Nonnull Collection<KaxxScoreboardGroup> getGroups() {
+        return this.groupsView;
+    }
+
+    /**
+     * Removes a group. Its members display their own scoreboard again from the next tick.
+     *
+     * @param name the name of the group
+     */
+    public void removeGroup(final @Nonnull String name) {
+        final KaxxScoreboardGroup group = this.groups.remove(name);
+
+        if (group == null) {
+            return;
         }
 
-        final KaxxScoreboard scoreboard = getScoreboard(uniqueId);
-        Preconditions.checkNotNull(scoreboard, "KaxxScoreboard is null");
+        for (final KaxxScoreboardEntry entry : this.registry.snapshot()) {
+            if (entry.getGroup() == group) {
+                entry.setGroup(null);
+            }
+        }
 
-        this.scoreboards.remove(uniqueId);
-        scoreboard.destroy();
+        this.removedGroups.add(group);
+    }
+
+    /**
+     * Retrieves and removes the next group removed through {@link #removeGroup(String)} whose members have not
+     * been cleared yet. This is called by the update task.
+     *
+     * @return the removed group, or null if there is none
+     */
+    public @Nullable KaxxScoreboardGroup pollRemovedGroup() {
+        return this.removedGroups.poll();
+    }
+
+    /**
+     * Makes a player display the scoreboard of a group instead of their own, leaving their previous group if any.
+     * The player receives the board of the group on the next tick.
+     *
+     * @param uniqueId the UUID of the player
+     * @param group    the group to join. Cannot be null.
+     * @throws IllegalArgumentException if the player does not have a scoreboard or if the group has been removed
+     */
+    public void joinGroup(final @Nonnull UUID uniqueId, final @Nonnull KaxxScoreboardGroup group) {
+        final KaxxScoreboardEntry entry = this.registry.get(uniqueId);
+
+        if (entry == null) {
+            throw new IllegalArgumentException("Player with UUID " + uniqueId + " does not have a scoreboard");
+        }
+
+        if (this.groups.get(group.getName()) != group) {
+            throw new IllegalArgumentException("Group " + group.getName() + " does not belong to this handler");
+        }
+
+        entry.setGroup(group);
+        group.request(entry);
+    }
+
+    /**
+     * Makes a player display their own scoreboard again, rendered from scratch on the next tick.
+     *
+     * @param uniqueId the UUID of the player
+     */
+    public void leaveGroup(final @Nonnull UUID uniqueId) {
+        final KaxxScoreboardEntry entry = this.registry.get(uniqueId);
+
+        if (entry != null) {
+            entry.setGroup(null);
+        }
+    }
+
+    /**
+     * Retrieves the push-style handle of the scoreboard of a player, creating it if needed.
+     * <p>
+     * Once a scoreboard has a handle, it is only rendered from the changes made through the handle,
+     * and the adapter is no longer polled for it. The other scoreboards keep using the adapter.
+     * The lines the adapter displayed are cleared on the next refresh, so the board only shows what the handle sets.
+     *
+     * @param uniqueId the UUID of the player
+     * @return the handle of the scoreboard of the player
+     * @throws IllegalArgumentException if the player does not have a scoreboard
+     */
+    public @Nonnull KaxxScoreboardHandle getHandle(final @Nonnull UUID uniqueId) {
+        final KaxxScoreboardEntry entry = this.registry.get(uniqueId);
+
+        if (entry == null) {
+            throw new IllegalArgumentException("Player with UUID " + uniqueId + " does not have a scoreboard");
+        }
+
+        synchronized (entry) {
+            if (entry.getHandle() == null) {
+                entry.setHandle(new KaxxScoreboardHandle());
+                entry.requestReset();
+            }
+
+            return entry.getHandle();
+        }
+    }
+
+    /**
+     * Releases the push-style handle of the scoreboard of a player, which is rendered from the adapter again.
+     * The lines set through the handle are cleared on the next refresh, even before the adapter is polled.
+     *
+     * @param uniqueId the UUID of the player
+     */
+    public void releaseHandle(final @Nonnull UUID uniqueId) {
+        final KaxxScoreboardEntry entry = this.registry.get(uniqueId);
+
+        if (entry != null) {
+            synchronized (entry) {
+                if (entry.getHandle() != null) {
+                    entry.setHandle(null);
+                    entry.requestReset();
+                }
+            }
+        }
     }
 
     /**
@@ -159,8 +1040,8 @@ public final class KaxxScoreboardHandler {
      * @param uuid The UUID of the player.
      * @return {@code true} if the player has a scoreboard, {@code false} otherwise.
      */
-    public boolean hasScoreboard(UUID uuid) {
-        return scoreboards.containsKey(uuid);
+    public boolean hasScoreboard(final @Nonnull UUID uuid) {
+        return this.registry.contains(uuid);
     }
 
     /**
@@ -170,7 +1051,22 @@ public final class KaxxScoreboardHandler {
      * @return the scoreboard associated with the given unique ID, or null if no scoreboard is found
      */
     public @Nullable KaxxScoreboard getScoreboard(final @Nonnull UUID uniqueId) {
-        return scoreboards.get(uniqueId);
+        final KaxxScoreboardEntry entry = this.registry.get(uniqueId);
+
+        return entry == null ? null : entry.getScoreboard();
+    }
+
+    /**
+     * Retrieves the scoreboards of the players, keyed by their unique ID.
+     * The returned map is a read-only view of the registry, reflecting the players joining and leaving.
+     *
+     * @return the scoreboards of the players
+     * @deprecated the scoreboards are kept by the {@link #getRegistry() registry}, use {@link #getScoreboard(UUID)}
+     * or {@link KaxxScoreboardRegistry#snapshot()} instead. The map can no longer be modified.
+     */
+    @Deprecated
+    public @Nonnull Map<UUID, KaxxScoreboard> getScoreboards() {
+        return Maps.transformValues(this.registry.asMap(), KaxxScoreboardEntry::getScoreboard);
     }
     
     
@@ -0,0 +1,96 @@
+package ca.kaxx.board;
+
+import javax.annotation.Nonnull;
+
+/**
+ * ScoreboardLine represents a line of at most 48 characters split into the prefix and suffix of its team.
+ * The suffix starts with the colors active at the end of the prefix, so that they carry over.
+ */
+public record ScoreboardLine(@Nonnull String prefix, @Nonnull String suffix) {
+
+    /**
+     * Splits a line into the prefix and suffix of its team.
+     *
+     * @param line the line to split. Must contain 0 to 48 characters.
+     * @return the split line
+     * @throws IllegalArgumentException if the line is too long
+     */
+    public static ScoreboardLine split(final @Nonnull String line) {
+        final int length = line.length();
+
+        if (length > 48) {
+            throw new IllegalArgumentException("Line must contain 0 to 48 characters !");
+        }
+
+        final int lag = (length > 16 && line.charAt(15) == 167) ? 1 : 0;
+        final int maxPrefixLength = 16 - lag;
+        final int prefixLength = Math.min(length, maxPrefixLength);
+
+        final String lastColors = getLastColors(line, prefixLength, lag);
+
+        final int maxIndex = 48 - lastColors.length();
+
+        if (length > maxIndex) {
+            throw new IllegalArgumentException("Due to colors, line cannot be greater than " + maxIndex + "!");
+        }
+
+        final String prefix = line.substring(0, prefixLength);
+        final String suffix = length > maxPrefixLength ? (lastColors + line.substring(maxPrefixLength)) : "";
+
+        return new ScoreboardLine(prefix, suffix);
+    }
+
+    /**
+     * Returns the last colors used in a given string.
+     *
+     * @param str    the string from which to extract the last colors
+     * @param length the length of the string
+     * @param lag    the lag value to determine the colors
+     * @return the last colors used in the string
+     */
+    static String getLastColors(final @Nonnull String str, final int length, final int lag) {
+        if (length == 0) {
+            return "";
+        }
+
+        int i = length - 1;
+
+        char previousChar = str.charAt(i), currentChar;
+        final char[] colors = new char[2];
+        int colorIndex;
+
+        if (lag == 1) {
+            colors[((currentChar = str.charAt(16)) > 106 && previousChar < 114) ? 1 : 0] = currentChar;
+        }
+
+        while (--i > -1) {
+            if ((currentChar = str.charAt(i)) == 167) {
+                colorIndex = (previousChar > 106 && previousChar < 114) ? 1 : 0;
+                if (colors[colorIndex] != 0) {
+                    continue;
+                }
+
+                colors[colorIndex] = previousChar;
+                if (colors[colorIndex ^ 1] == 0) {
+                    continue;
+                }
+
+                break;
+            }
+            previousChar = currentChar;
+        }
+
+        final StringBuilder colorsBuilder = new StringBuilder(4);
+
+        if (colors[0] != 0) {
+            colorsBuilder.append("§").append(colors[0]);
+        }
+
+        if (colors[1] != 0) {
+            colorsBuilder.append("§").append(colors[1]);
+        }
+
+        return colorsBuilder.toString();
+    }
+
+}
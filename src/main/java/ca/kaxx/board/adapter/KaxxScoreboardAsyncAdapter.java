@@ -0,0 +1,34 @@
+package ca.kaxx.board.adapter;
+
+import org.bukkit.entity.Player;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An interface for a scoreboard adapter whose data is loaded asynchronously, for example from a remote service.
+ * <p>
+ * The update task never waits for the futures: a scoreboard keeps its last lines until both futures of its call
+ * completed, and is rendered from them on its first refresh afterward. At most one call is in flight per player,
+ * and the results of calls made before the adapter of the handler changed are dropped.
+ */
+public interface KaxxScoreboardAsyncAdapter {
+
+    /**
+     * Retrieves the title for the specified player.
+     *
+     * @param player The player for which to retrieve the title.
+     * @return A future completed with the title of the player.
+     */
+    CompletableFuture<String> getTitle(final @Nonnull Player player);
+
+    /**
+     * Retrieves the lines for a player's scoreboard.
+     *
+     * @param player The player whose scoreboard lines are to be retrieved. Must not be null.
+     * @return A future completed with the lines of the player's scoreboard, from top to bottom.
+     */
+    CompletableFuture<? extends Collection<String>> getLines(final @Nonnull Player player);
+
+}
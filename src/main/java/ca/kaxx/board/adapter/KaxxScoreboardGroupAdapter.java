@@ -0,0 +1,30 @@
+package ca.kaxx.board.adapter;
+
+import ca.kaxx.board.KaxxScoreboardGroup;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+
+/**
+ * An interface for an adapter that provides the data of a scoreboard shared by a whole group of players.
+ * It is called once per group on each refresh, whatever the number of players in the group.
+ */
+public interface KaxxScoreboardGroupAdapter {
+
+    /**
+     * Retrieves the title for the specified group.
+     *
+     * @param group The group for which to retrieve the title.
+     * @return The title of the group.
+     */
+    String getTitle(final @Nonnull KaxxScoreboardGroup group);
+
+    /**
+     * Retrieves the lines for a group's scoreboard.
+     *
+     * @param group The group whose scoreboard lines are to be retrieved. Must not be null.
+     * @return A collection of lines for the group's scoreboard, from top to bottom.
+     */
+    Collection<String> getLines(final @Nonnull KaxxScoreboardGroup group);
+
+}
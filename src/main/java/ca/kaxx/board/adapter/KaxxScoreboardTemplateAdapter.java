@@ -0,0 +1,56 @@
+package ca.kaxx.board.adapter;
+
+import ca.kaxx.board.template.ScoreboardLineTemplate;
+import org.bukkit.entity.Player;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A scoreboard adapter whose lines are precompiled {@link ScoreboardLineTemplate}s.
+ * <p>
+ * The static keys of the templates are only sent when they change, and on each refresh only the values of their
+ * slots are rendered and sent, instead of translating and splitting every full line.
+ */
+public interface KaxxScoreboardTemplateAdapter extends KaxxScoreboardAdapter {
+
+    /**
+     * Retrieves the line templates for a player's scoreboard.
+     * The templates should be compiled once and the same list returned on every call.
+     *
+     * @param player The player whose scoreboard templates are to be retrieved. Must not be null.
+     * @return the templates of the lines, from top to bottom
+     */
+    List<ScoreboardLineTemplate> getTemplates(final @Nonnull Player player);
+
+    /**
+     * Retrieves the value of a slot for a player.
+     * The rendered value of a line is its suffix: the part of it beyond 16 characters is not displayed.
+     *
+     * @param player The player whose scoreboard is rendered. Must not be null.
+     * @param slot   The name of the slot. Must not be null.
+     * @return the value of the slot, converted with {@link String#valueOf(Object)}
+     */
+    Object getValue(final @Nonnull Player player, final @Nonnull String slot);
+
+    /**
+     * Renders every template into a full line, for the code paths that do not support templates.
+     *
+     * @param player The player whose scoreboard lines are to be retrieved. Must not be null.
+     * @return the rendered lines, from top to bottom
+     */
+    @Override
+    default Collection<String> getLines(final @Nonnull Player player) {
+        final List<ScoreboardLineTemplate> templates = getTemplates(player);
+        final List<String> lines = new ArrayList<>(templates.size());
+
+        for (final ScoreboardLineTemplate template : templates) {
+            lines.add(template.renderLine(player, this));
+        }
+
+        return lines;
+    }
+
+}
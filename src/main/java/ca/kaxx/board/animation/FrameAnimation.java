@@ -0,0 +1,268 @@
+package ca.kaxx.board.animation;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import org.bukkit.ChatColor;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An animation whose whole cycle of frames is computed once, when it is created.
+ * <p>
+ * The frames are kept in a ring, and the frame displayed on a tick is a pure function of that tick:
+ * each frame is displayed for {@link #getInterval() interval} ticks. The animation is immutable, so reading a frame
+ * is lock-free and never builds a string, and every scoreboard rendered on the same tick gets the same instance.
+ * Frames which are displayed for several steps are the same string instance too.
+ */
+public final class FrameAnimation {
+
+    /**
+     * The number of steps the shine animation stays on the plain text once the shine has crossed it.
+     */
+    public static final int SHINE_PAUSE = 50;
+
+    /**
+     * The default number of ticks each frame is displayed, which is the default refresh rate of the handler.
+     */
+    public static final int DEFAULT_INTERVAL = 2;
+
+    /**
+     * The frames of the cycle, in order.
+     */
+    private final String[] frames;
+
+    /**
+     * The index of the frame displayed on tick 0.
+     */
+    private final int offset;
+
+    /**
+     * The number of ticks each frame is displayed.
+     */
+    @Getter
+    private final int interval;
+
+    /**
+     * Creates an animation from its frames.
+     *
+     * @param frames   the frames of the cycle. Cannot be empty.
+     * @param offset   the index of the frame displayed on tick 0.
+     * @param interval the number of ticks each frame is displayed. Must be positive.
+     */
+    private FrameAnimation(final @Nonnull String[] frames, final int offset, final int interval) {
+        Preconditions.checkArgument(frames.length > 0, "An animation must have at least one frame");
+        Preconditions.checkArgument(interval > 0, "Interval must be positive");
+
+        this.frames = frames;
+        this.offset = Math.floorMod(offset, frames.length);
+        this.interval = interval;
+    }
+
+    /**
+     * Creates an animation from its frames, displaying each of them for {@value #DEFAULT_INTERVAL} ticks.
+     *
+     * @param frames the frames of the cycle. Cannot be empty.
+     * @param offset the index of the frame displayed on tick 0.
+     */
+    private FrameAnimation(final @Nonnull String[] frames, final int offset) {
+        this(frames, offset, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Creates an animation cycling through the given frames, each of them being displayed for one step.
+     * Alternate color codes using '&amp;' are translated.
+     *
+     * @param frames the frames of the cycle. Cannot be empty.
+     * @return the animation
+     * @throws IllegalArgumentException if there is no frame
+     */
+    public static FrameAnimation of(final @Nonnull String... frames) {
+        final String[] translated = new String[frames.length];
+
+        for (int i = 0; i < frames.length; i++) {
+            translated[i] = ChatColor.translateAlternateColorCodes('&', frames[i]);
+        }
+
+        return new FrameAnimation(translated, 0);
+    }
+
+    /**
+     * Creates a shine animation: two characters in the secondary color sweep the text, one step per character,
+     * then the plain text is displayed for {@value #SHINE_PAUSE} steps.
+     *
+     * @param text           the text to animate. Cannot be null.
+     * @param primaryColor   the color of the text. Cannot be null.
+     * @param secondaryColor the color of the shine. Cannot be null.
+     * @return the animation, starting with the sweep on tick 0
+     */
+    public static FrameAnimation shine(final @Nonnull String text, final @Nonnull ChatColor primaryColor,
+                                       final @Nonnull ChatColor secondaryColor) {
+        return shine(text, primaryColor, secondaryColor, 0, 0);
+    }
+
+    /**
+     * Creates a shine animation: two characters in the secondary color sweep the text, one step per character,
+     * then the plain text is displayed for {@value #SHINE_PAUSE} steps.
+     *
+     * @param text           the text to animate. Cannot be null.
+     * @param primaryColor   the color of the text. Cannot be null.
+     * @param secondaryColor the color of the shine. Cannot be null.
+     * @param cooldown       the number of steps the plain text is displayed before the first sweep,
+     *                       at most {@value #SHINE_PAUSE}.
+     * @param startIndex     the index of the character the first sweep starts from, if there is no cooldown.
+     * @return the animation
+     */
+    public static FrameAnimation shine(final @Nonnull String text, final @Nonnull ChatColor primaryColor,
+                                       final @Nonnull ChatColor secondaryColor, final int cooldown,
+                                       final int startIndex) {
+        final int length = text.length();
+
+        if (length == 0) {
+            return new FrameAnimation(new String[]{primaryColor.toString()}, 0);
+        }
+
+        final String[] frames = new String[length + SHINE_PAUSE];
+        final String primary = primaryColor.toString();
+        final String secondary = secondaryColor.toString();
+
+        for (int index = 0; index < length; index++) {
+            final StringBuilder frame = new StringBuilder(primary.length() + length + 3 * secondary.length());
+
+            frame.append(primary);
+
+            if (index > 0) {
+                frame.append(text, 0, index - 1);
+                frame.append(secondary).append(text.charAt(index - 1));
+            }
+
+            frame.append(secondary).append(text.charAt(index));
+
+            if (index + 1 < length) {
+                frame.append(secondary).append(text.charAt(index + 1));
+
+                if (index + 2 < length) {
+                    frame.append(primary).append(text, index + 2, length);
+                }
+            }
+
+            frames[index] = frame.toString();
+        }
+
+        Arrays.fill(frames, length, frames.length, primary + text);
+
+        final int offset = cooldown > 0
+                ? frames.length - Math.min(cooldown, SHINE_PAUSE)
+                : Math.min(Math.max(startIndex, 0), length - 1);
+
+        return new FrameAnimation(frames, offset);
+    }
+
+    /**
+     * Creates a typewriter animation: the text is typed one character per step, then fully displayed for the given
+     * number of steps before the cycle starts again from an empty text.
+     * Alternate color codes using '&amp;' are translated, and are never cut.
+     *
+     * @param text  the text to type. Cannot be null.
+     * @param pause the number of steps the full text is displayed. Cannot be negative.
+     * @return the animation
+     * @throws IllegalArgumentException if the pause is negative
+     */
+    public static FrameAnimation typewriter(final @Nonnull String text, final int pause) {
+        Preconditions.checkArgument(pause >= 0, "Pause cannot be negative");
+
+        final String translated = ChatColor.translateAlternateColorCodes('&', text);
+        final List<String> frames = new ArrayList<>(translated.length() + pause + 1);
+
+        frames.add("");
+
+        for (int end = 1; end < translated.length(); end++) {
+            if (translated.charAt(end - 1) == ChatColor.COLOR_CHAR
+                    || (end > 1 && translated.charAt(end - 2) == ChatColor.COLOR_CHAR)) {
+                continue;
+            }
+
+            frames.add(translated.substring(0, end));
+        }
+
+        for (int i = 0; i <= pause; i++) {
+            frames.add(translated);
+        }
+
+        return new FrameAnimation(frames.toArray(new String[0]), 0);
+    }
+
+    /**
+     * Creates a blink animation: the text is displayed for some steps, then hidden for some steps.
+     * Alternate color codes using '&amp;' are translated.
+     *
+     * @param text    the text to display. Cannot be null.
+     * @param visible the number of steps the text is displayed. Must be positive.
+     * @param hidden  the number of steps the text is hidden. Must be positive.
+     * @return the animation
+     * @throws IllegalArgumentException if a number of steps is not positive
+     */
+    public static FrameAnimation blink(final @Nonnull String text, final int visible, final int hidden) {
+        Preconditions.checkArgument(visible > 0 && hidden > 0, "Steps must be positive");
+
+        final String[] frames = new String[visible + hidden];
+
+        Arrays.fill(frames, 0, visible, ChatColor.translateAlternateColorCodes('&', text));
+        Arrays.fill(frames, visible, frames.length, "");
+
+        return new FrameAnimation(frames, 0);
+    }
+
+    /**
+     * Creates the same animation, displaying each frame for the given number of ticks.
+     *
+     * @param interval the number of ticks each frame is displayed. Must be positive.
+     * @return the animation
+     * @throws IllegalArgumentException if the interval is not positive
+     */
+    public FrameAnimation withInterval(final int interval) {
+        return interval == this.interval ? this : new FrameAnimation(this.frames, this.offset, interval);
+    }
+
+    /**
+     * Retrieves the frame displayed on a tick.
+     *
+     * @param tick the tick, usually the one of the {@link TickClock} of the handler.
+     * @return the frame
+     */
+    public String getFrame(final long tick) {
+        return getFrameAt(Math.floorDiv(tick, this.interval));
+    }
+
+    /**
+     * Retrieves a frame of the cycle by its step.
+     *
+     * @param step the step of the frame, wrapped around the length of the cycle.
+     * @return the frame
+     */
+    public String getFrameAt(final long step) {
+        return this.frames[indexAt(step)];
+    }
+
+    /**
+     * Returns the index in the cycle of the frame of a step.
+     *
+     * @param step the step of the frame, wrapped around the length of the cycle.
+     * @return the index of the frame, between 0 and {@link #length()} (exclusive)
+     */
+    int indexAt(final long step) {
+        return (int) Math.floorMod(step + this.offset, (long) this.frames.length);
+    }
+
+    /**
+     * Returns the number of frames of the cycle.
+     *
+     * @return the length of the cycle
+     */
+    public int length() {
+        return this.frames.length;
+    }
+
+}
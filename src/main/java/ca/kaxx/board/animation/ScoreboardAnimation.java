@@ -2,28 +2,29 @@ package ca.kaxx.board.animation;
 
 import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.Setter;
 import org.bukkit.ChatColor;
 
 import javax.annotation.Nonnull;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * The ScoreboardAnimation class represents a scoreboard animation with customizable text, colors, and animation effects.
+ * The ScoreboardAnimation class represents a scoreboard animation with customizable text, colors, and animation
+ * effects.
+ * <p>
+ * Its frames are precomputed in a {@link FrameAnimation#shine shine} animation, which is rebuilt when the text changes.
+ *
+ * @deprecated register a {@link FrameAnimation} in the {@link ScoreboardAnimations} of the handler instead,
+ * which supports any number of named animations. Since its frames are precomputed, setting the text restarts the
+ * sweep from the first character of the new text on the next frame, instead of continuing from the current one.
  */
+@Deprecated
 @Getter
-@Setter
 public final class ScoreboardAnimation {
 
     /**
      * Represents a private variable for storing text to be animated on the scoreboard.
      */
-    private String text,
-    /**
-     * Represents the current animation state.
-     *
-     * This variable is used to store the current animation state of a scoreboard.
-     */
-    currentAnimation;
+    private volatile String text;
 
     /**
      * The primary color used in the ScoreboardAnimation.
@@ -35,22 +36,24 @@ public final class ScoreboardAnimation {
     secondaryColor;
 
     /**
-     * The cooldown in ticks between animation frames.
+     * The precomputed frames of the animation.
      */
-    private int cooldown;
+    @Getter(AccessLevel.NONE)
+    private volatile FrameAnimation frames;
 
     /**
-     * The index of the character to color within the text.
-     * <p>
-     * It determines the position of the character that will be colored differently in the animated text.
-     * This index is used in the animation effect, where characters are cycled through and colored accordingly.
-     * If the current index is at the end of the text, textToColorCharIndex is reset to 0 and cooldown is set to 50.
-     *
-     * @see ScoreboardAnimation
+     * The number of frames built since the text was set, the first call to {@link #buildNext()} displaying the first
+     * frame. It is the only state changed by {@link #buildNext()}, so the animated text never tears.
+     */
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong steps;
+
+    /**
+     * The text displayed instead of the current frame until the next frame is built,
+     * set through {@link #setCurrentAnimation(String)}, or null to display the current frame.
      */
     @Getter(AccessLevel.NONE)
-    @Setter(AccessLevel.NONE)
-    private int textToColorCharIndex;
+    private volatile String currentAnimation;
 
     /**
      * Represents a scoreboard animation with customizable text, colors, and animation effects.
@@ -61,14 +64,16 @@ public final class ScoreboardAnimation {
      * @param cooldown          The cooldown in ticks between animation frames
      * @param textToColorCharIndex The index of the character to color within the text
      */
-    public ScoreboardAnimation(final @Nonnull String text, final @Nonnull ChatColor primaryColor, final @Nonnull ChatColor secondaryColor, final int cooldown, final int textToColorCharIndex) {
+    public ScoreboardAnimation(final @Nonnull String text, final @Nonnull ChatColor primaryColor,
+                               final @Nonnull ChatColor secondaryColor, final int cooldown,
+                               final int textToColorCharIndex) {
         this.text = text;
 
         this.primaryColor = primaryColor;
         this.secondaryColor = secondaryColor;
 
-        this.cooldown = cooldown;
-        this.textToColorCharIndex = textToColorCharIndex;
+        this.frames = FrameAnimation.shine(text, primaryColor, secondaryColor, cooldown, textToColorCharIndex);
+        this.steps = new AtomicLong();
     }
 
     /**
@@ -78,7 +83,8 @@ public final class ScoreboardAnimation {
      * @param primaryColor        the primary color for the animated text
      * @param secondaryColor      the secondary color for the animated text
      */
-    public ScoreboardAnimation(final @Nonnull String text, final @Nonnull ChatColor primaryColor, final @Nonnull ChatColor secondaryColor) {
+    public ScoreboardAnimation(final @Nonnull String text, final @Nonnull ChatColor primaryColor,
+                               final @Nonnull ChatColor secondaryColor) {
         this(text, primaryColor, secondaryColor, 5, 0);
     }
 
@@ -92,58 +98,119 @@ public final class ScoreboardAnimation {
     }
 
     /**
-     * Builds the next frame of the animation.
-     * If the cooldown is greater than 0, decreases the cooldown and updates the current animation to include the primary color.
-     * Otherwise, constructs the formatted text by appending the primary and secondary colors to the text at the specified index.
-     * If there are more characters to color, appends the next character with the secondary color.
-     * If there are more characters after the next character, appends the remaining text with the primary color.
-     * If there are no more characters to color, resets the index and sets the cooldown to 50.
-     * Sets the current animation to the constructed formatted text.
+     * Sets the text to animate. The text currently displayed is kept until the next frame is built,
+     * which starts the sweep of the new text.
+     *
+     * @param text The text to animate. Cannot be null.
      */
-    public void buildNext() {
-        final String textToColor = text;
+    public void setText(final @Nonnull String text) {
+        final String displayed = getAnimatedText();
 
-        if (this.cooldown > 0) {
-            this.cooldown--;
+        this.frames = FrameAnimation.shine(text, primaryColor, secondaryColor);
+        this.text = text;
+        this.currentAnimation = displayed;
+        this.steps.set(0);
+    }
 
-            this.currentAnimation = primaryColor + textToColor;
-            return;
+    /**
+     * Moves the animation to its next frame.
+     */
+    public void buildNext() {
+        this.steps.incrementAndGet();
+
+        if (this.currentAnimation != null) {
+            this.currentAnimation = null;
         }
+    }
 
-        final StringBuilder formattedText = new StringBuilder();
+    /**
+     * Retrieves the current animated text.
+     *
+     * @return The current animated text as a String, or null if no frame has been built yet.
+     */
+    public String getAnimatedText() {
+        final String currentAnimation = this.currentAnimation;
 
-        if (this.textToColorCharIndex > 0) {
-            formattedText.append(textToColor, 0, this.textToColorCharIndex - 1);
-            formattedText.append(secondaryColor).append(textToColor.charAt(this.textToColorCharIndex - 1));
-        } else {
-            formattedText.append(textToColor, 0, this.textToColorCharIndex);
+        if (currentAnimation != null) {
+            return currentAnimation;
         }
 
-        formattedText.append(secondaryColor).append(textToColor.charAt(this.textToColorCharIndex));
+        final long steps = this.steps.get();
+
+        return steps > 0 ? this.frames.getFrameAt(steps - 1) : null;
+    }
 
-        if (this.textToColorCharIndex + 1 < textToColor.length()) {
-            formattedText.append(secondaryColor).append(textToColor.charAt(this.textToColorCharIndex + 1));
+    /**
+     * Sets the text displayed until the next frame is built.
+     *
+     * @param currentAnimation The text to display, or null to display the current frame.
+     * @deprecated the frames are precomputed, a text set here is only displayed until the next call to
+     * {@link #buildNext()}.
+     */
+    @Deprecated
+    public void setCurrentAnimation(final String currentAnimation) {
+        this.currentAnimation = currentAnimation;
+    }
 
-            if (this.textToColorCharIndex + 2 < textToColor.length()) {
-                formattedText.append(primaryColor).append(textToColor.substring(this.textToColorCharIndex + 2));
-            }
+    /**
+     * Retrieves the number of frames displaying the plain text before the next sweep starts.
+     *
+     * @return the cooldown in frames, 0 while the text is being swept
+     * @deprecated the cooldown is derived from the position of the animation in its precomputed cycle of frames.
+     */
+    @Deprecated
+    public int getCooldown() {
+        final FrameAnimation frames = this.frames;
+        final int index = frames.indexAt(this.steps.get());
 
-            this.textToColorCharIndex++;
+        return index >= sweepLength(frames) ? frames.length() - index : 0;
+    }
+
+    /**
+     * Sets the number of frames displaying the plain text before the next sweep starts.
+     * A cooldown of 0 starts the sweep on the next frame, unless the text is already being swept.
+     * The text currently displayed is kept until the next frame is built.
+     *
+     * @param cooldown The cooldown in frames, at most {@value FrameAnimation#SHINE_PAUSE}.
+     * @deprecated the cooldown is derived from the position of the animation in its precomputed cycle of frames,
+     * setting it moves the animation along its cycle.
+     */
+    @Deprecated
+    public void setCooldown(final int cooldown) {
+        final FrameAnimation frames = this.frames;
+        final int index = frames.indexAt(this.steps.get());
+        final int target;
+
+        if (cooldown > 0) {
+            target = frames.length() - Math.min(cooldown, FrameAnimation.SHINE_PAUSE);
+        } else if (index >= sweepLength(frames)) {
+            target = 0;
         } else {
-            this.textToColorCharIndex = 0;
-            this.cooldown = 50;
+            return;
         }
 
-        this.currentAnimation = primaryColor + formattedText.toString();
+        this.currentAnimation = getAnimatedText();
+        this.steps.addAndGet(Math.floorMod(target - index, frames.length()));
     }
 
     /**
      * Retrieves the current animated text.
      *
-     * @return The current animated text as a String.
+     * @return The current animated text as a String, or null if no frame has been built yet.
      */
-    public String getAnimatedText() {
-        return currentAnimation;
+    public String getCurrentAnimation() {
+        return getAnimatedText();
+    }
+
+    /**
+     * Computes the number of frames sweeping the text, from the frames themselves rather than from {@link #text},
+     * which may already have been replaced.
+     *
+     * @param frames the frames of the animation
+     * @return the number of frames sweeping the text, the other ones displaying the plain text
+     */
+    private static int sweepLength(final @Nonnull FrameAnimation frames) {
+        return frames.length() - FrameAnimation.SHINE_PAUSE;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,96 @@
+package ca.kaxx.board.animation;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The named animations of a handler, which can be used in the titles and lines of any scoreboard.
+ * <p>
+ * Adapters read the current frame of an animation with {@link #getFrame(String)}, which depends only on the
+ * current tick of the clock of the handler. Reading a frame is lock-free and can be done from any thread.
+ */
+public final class ScoreboardAnimations {
+
+    /**
+     * The registered animations, keyed by name.
+     */
+    private final ConcurrentMap<String, FrameAnimation> animations;
+
+    /**
+     * The clock the frames are computed from.
+     */
+    @Getter
+    private final TickClock clock;
+
+    /**
+     * Creates an empty set of animations.
+     *
+     * @param clock the clock the frames are computed from. Cannot be null.
+     */
+    public ScoreboardAnimations(final @Nonnull TickClock clock) {
+        this.animations = new ConcurrentHashMap<>();
+        this.clock = clock;
+    }
+
+    /**
+     * Registers an animation, replacing the one with the same name if any.
+     *
+     * @param name      the name of the animation. Cannot be null.
+     * @param animation the animation. Cannot be null.
+     */
+    public void register(final @Nonnull String name, final @Nonnull FrameAnimation animation) {
+        Preconditions.checkNotNull(name, "Name cannot be null");
+        Preconditions.checkNotNull(animation, "Animation cannot be null");
+
+        this.animations.put(name, animation);
+    }
+
+    /**
+     * Unregisters an animation.
+     *
+     * @param name the name of the animation
+     * @return the unregistered animation, or null if no animation has this name
+     */
+    public @Nullable FrameAnimation unregister(final @Nonnull String name) {
+        return this.animations.remove(name);
+    }
+
+    /**
+     * Retrieves an animation.
+     *
+     * @param name the name of the animation
+     * @return the animation, or null if no animation has this name
+     */
+    public @Nullable FrameAnimation get(final @Nonnull String name) {
+        return this.animations.get(name);
+    }
+
+    /**
+     * Retrieves the current frame of an animation.
+     *
+     * @param name the name of the animation
+     * @return the current frame, or an empty string if no animation has this name
+     */
+    public @Nonnull String getFrame(final @Nonnull String name) {
+        final FrameAnimation animation = this.animations.get(name);
+
+        return animation == null ? "" : animation.getFrame(this.clock.getTick());
+    }
+
+    /**
+     * Returns the names of the registered animations.
+     *
+     * @return an unmodifiable view of the names
+     */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(this.animations.keySet());
+    }
+
+}
@@ -0,0 +1,37 @@
+package ca.kaxx.board.animation;
+
+/**
+ * The tick counter of a handler, advanced once per tick by its update task.
+ * <p>
+ * The frames of the animations are a pure function of this counter, so reading them is lock-free and every
+ * scoreboard rendered on the same tick gets the same frame instance.
+ */
+public final class TickClock {
+
+    /**
+     * The current tick.
+     */
+    private volatile long tick;
+
+    /**
+     * Returns the current tick.
+     *
+     * @return the current tick
+     */
+    public long getTick() {
+        return this.tick;
+    }
+
+    /**
+     * Moves the clock to the next tick. This is called by the update task only.
+     *
+     * @return the new tick
+     */
+    public long advance() {
+        final long next = this.tick + 1;
+
+        this.tick = next;
+        return next;
+    }
+
+}
@@ -0,0 +1,225 @@
+package ca.kaxx.board.cache;
+
+import ca.kaxx.board.ScoreboardLine;
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import org.bukkit.ChatColor;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of the lines provided by the adapters, keyed by their raw text.
+ * <p>
+ * Each entry holds the line once its alternate color codes are translated and it is split into its prefix and
+ * suffix, so that a line which has already been seen costs a single lookup instead of a translation and a split.
+ * <p>
+ * The lines are evicted with the clock algorithm, an approximation of least recently used: a lookup only marks its
+ * line as referenced, without locking nor reordering anything, so that the shards of a parallel update never wait
+ * on each other. Once the cache is full, the lines are visited in insertion order: a referenced line is spared and
+ * unmarked, and the first line which has not been used since the last visit is evicted. Only the misses lock.
+ */
+public final class ScoreboardLineCache {
+
+    /**
+     * The default maximum number of lines held by a cache.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    /**
+     * The maximum number of lines held by this cache.
+     */
+    @Getter
+    private final int maximumSize;
+
+    /**
+     * The cached lines, keyed by their raw text.
+     */
+    private final ConcurrentMap<String, Node> lines;
+
+    /**
+     * The raw text of the cached lines in the order the clock visits them, guarded by itself.
+     */
+    private final ArrayDeque<String> clock;
+
+    /**
+     * The number of lookups which found their line in the cache.
+     */
+    private final LongAdder hits;
+
+    /**
+     * The number of lookups which had to translate and split their line.
+     */
+    private final LongAdder misses;
+
+    /**
+     * Creates a cache holding at most {@link #DEFAULT_MAXIMUM_SIZE} lines.
+     */
+    public ScoreboardLineCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Creates a cache holding at most the given number of lines.
+     *
+     * @param maximumSize the maximum number of lines. Must be positive.
+     * @throws IllegalArgumentException if the maximum size is not positive
+     */
+    public ScoreboardLineCache(final int maximumSize) {
+        Preconditions.checkArgument(maximumSize > 0, "Maximum size must be positive");
+
+        this.maximumSize = maximumSize;
+        this.lines = new ConcurrentHashMap<>();
+        this.clock = new ArrayDeque<>();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * Retrieves a line translated and split, translating and splitting it only if it is not cached yet.
+     * A line which cannot be split is not cached.
+     *
+     * @param raw the raw line, using '&amp;' as the alternate color code. Cannot be null.
+     * @return the translated and split line
+     * @throws IllegalArgumentException if the translated line is too long
+     */
+    public @Nonnull ScoreboardLine get(final @Nonnull String raw) {
+        final Node cached = this.lines.get(raw);
+
+        if (cached != null) {
+            if (!cached.referenced) {
+                cached.referenced = true;
+            }
+
+            this.hits.increment();
+            return cached.line;
+        }
+
+        this.misses.increment();
+
+        final ScoreboardLine line = ScoreboardLine.split(ChatColor.translateAlternateColorCodes('&', raw));
+        final Node existing = this.lines.putIfAbsent(raw, new Node(line));
+
+        if (existing != null) {
+            return existing.line;
+        }
+
+        synchronized (this.clock) {
+            this.clock.addLast(raw);
+
+            evict();
+        }
+
+        return line;
+    }
+
+    /**
+     * Evicts lines until the cache does not hold more than its maximum size, sparing the referenced lines once.
+     * The caller must hold the lock of the clock.
+     */
+    private void evict() {
+        while (this.lines.size() > this.maximumSize) {
+            final String raw = this.clock.pollFirst();
+
+            if (raw == null) {
+                return;
+            }
+
+            final Node node = this.lines.get(raw);
+
+            if (node == null) {
+                continue;
+            }
+
+            if (node.referenced) {
+                node.referenced = false;
+                this.clock.addLast(raw);
+            } else {
+                this.lines.remove(raw, node);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of lines currently cached.
+     *
+     * @return the number of lines
+     */
+    public int size() {
+        return this.lines.size();
+    }
+
+    /**
+     * Removes every cached line and resets the statistics.
+     */
+    public void clear() {
+        synchronized (this.clock) {
+            this.lines.clear();
+            this.clock.clear();
+        }
+
+        this.hits.reset();
+        this.misses.reset();
+    }
+
+    /**
+     * Returns the number of lookups which found their line in the cache.
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups which had to translate and split their line.
+     *
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Returns the ratio of lookups which found their line in the cache.
+     *
+     * @return the hit rate, between 0 and 1, or 0 if there was no lookup yet
+     */
+    public double getHitRate() {
+        final long hits = getHits();
+        final long total = hits + getMisses();
+
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * A cached line, along with the reference bit of the clock.
+     */
+    private static final class Node {
+
+        /**
+         * The translated and split line.
+         */
+        private final ScoreboardLine line;
+
+        /**
+         * Determines whether the line has been used since the clock last visited it.
+         * It is only written when it changes, so that the lookups of a hot line do not contend on it.
+         */
+        private volatile boolean referenced;
+
+        /**
+         * Creates a node for a line which has just been cached.
+         *
+         * @param line the translated and split line.
+         */
+        private Node(final @Nonnull ScoreboardLine line) {
+            this.line = line;
+        }
+
+    }
+
+}
@@ -0,0 +1,206 @@
+package ca.kaxx.board.commands;
+
+import ca.kaxx.board.KaxxScoreboardHandler;
+import ca.kaxx.board.cache.ScoreboardLineCache;
+import ca.kaxx.board.metrics.LatencyHistogram;
+import ca.kaxx.board.metrics.ScoreboardMetrics;
+import ca.kaxx.board.metrics.ScoreboardPacketType;
+import ca.kaxx.board.registry.KaxxScoreboardEntry;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A command displaying the metrics of a scoreboard handler, usable in-game and from the console.
+ * <p>
+ * Usage: {@code /<command> [on|off|reset]}. Without arguments, it displays the metrics.
+ */
+public final class KaxxScoreboardStatsCommand extends Command {
+
+    /**
+     * The permission required to use the command.
+     */
+    public static final String PERMISSION = "kaxxboard.stats";
+
+    /**
+     * The number of slowest players displayed.
+     */
+    private static final int SLOWEST_PLAYERS = 5;
+
+    /**
+     * The handler whose metrics are displayed.
+     */
+    private final KaxxScoreboardHandler scoreboardHandler;
+
+    /**
+     * Creates the stats command.
+     *
+     * @param name              the name of the command. Cannot be null.
+     * @param scoreboardHandler the handler whose metrics are displayed. Cannot be null.
+     */
+    public KaxxScoreboardStatsCommand(final @Nonnull String name, final @Nonnull KaxxScoreboardHandler scoreboardHandler) {
+        super(name);
+
+        this.scoreboardHandler = scoreboardHandler;
+
+        setDescription("Displays the metrics of the scoreboards");
+        setUsage("/" + name + " [on|off|reset]");
+        setPermission(PERMISSION);
+    }
+
+    @Override
+    public boolean execute(final CommandSender sender, final String label, final String[] args) {
+        if (!testPermission(sender)) {
+            return true;
+        }
+
+        final ScoreboardMetrics metrics = this.scoreboardHandler.getMetrics();
+
+        if (args.length > 0) {
+            switch (args[0].toLowerCase()) {
+                case "on" -> {
+                    metrics.setEnabled(true);
+                    sender.sendMessage("§aScoreboard metrics enabled.");
+                }
+                case "off" -> {
+                    metrics.setEnabled(false);
+                    sender.sendMessage("§cScoreboard metrics disabled.");
+                }
+                case "reset" -> {
+                    metrics.reset();
+                    sender.sendMessage("§aScoreboard metrics reset.");
+                }
+                default -> sender.sendMessage("§cUsage: /" + label + " [on|off|reset]");
+            }
+
+            return true;
+        }
+
+        sender.sendMessage(buildReport(metrics).toArray(new String[0]));
+        return true;
+    }
+
+    /**
+     * Builds the lines of the metrics report.
+     *
+     * @param metrics the metrics to report. Cannot be null.
+     * @return the lines of the report
+     */
+    private List<String> buildReport(final @Nonnull ScoreboardMetrics metrics) {
+        final List<String> report = new ArrayList<>();
+
+        report.add("§6KaxxBoard §7- §f" + this.scoreboardHandler.getRegistry().size() + " §7scoreboards, §f"
+                + this.scoreboardHandler.getGroups().size() + " §7groups, metrics "
+                + (metrics.isEnabled() ? "§aon" : "§coff"));
+
+        report.add("§7Tick: " + formatHistogram(metrics.getTickDurations()));
+        report.add("§7Adapter: " + formatHistogram(metrics.getAdapterLatencies()));
+
+        if (this.scoreboardHandler.getAdapterTimeout() > 0) {
+            final StringBuilder offenders = new StringBuilder("§7Adapter timeouts: §f")
+                    .append(metrics.getAdapterTimeouts()).append(" §7(budget ")
+                    .append(formatNanos(this.scoreboardHandler.getAdapterTimeout())).append("), offenders:");
+
+            for (final KaxxScoreboardEntry entry : this.scoreboardHandler.getAdapterOffenders()) {
+                offenders.append(" §c").append(entry.getPlayer().getName());
+            }
+
+            report.add(offenders.toString());
+        }
+
+        final long sent = this.scoreboardHandler.getSentUpdates();
+        final long skipped = this.scoreboardHandler.getSkippedUpdates();
+        final long updates = sent + skipped;
+
+        report.add("§7Updates: §f" + sent + " §7sent, §f" + skipped + " §7skipped §8("
+                + (updates == 0 ? 0 : skipped * 100 / updates) + "% skipped)§7, §f" + metrics.getDeferredUpdates()
+                + " §7deferred");
+
+        final StringBuilder packets = new StringBuilder("§7Packets:");
+
+        for (final ScoreboardPacketType type : ScoreboardPacketType.values()) {
+            final long count = metrics.getPackets(type);
+
+            if (count == 0) {
+                continue;
+            }
+
+            packets.append(" §f").append(type.name().toLowerCase()).append(" ").append(count)
+                    .append(" §8(").append(formatBytes(metrics.getBytes(type))).append(")");
+        }
+
+        report.add(packets.toString());
+
+        final ScoreboardLineCache lineCache = this.scoreboardHandler.getLineCache();
+
+        if (lineCache != null) {
+            report.add("§7Line cache: §f" + lineCache.size() + "/" + lineCache.getMaximumSize() + " §7lines, §f"
+                    + Math.round(lineCache.getHitRate() * 100) + "% §7hits");
+        }
+
+        final StringBuilder slowest = new StringBuilder("§7Slowest:");
+
+        for (final KaxxScoreboardEntry entry : this.scoreboardHandler.getSlowestPlayers(SLOWEST_PLAYERS)) {
+            if (entry.getLastUpdateNanos() == 0) {
+                break;
+            }
+
+            slowest.append(" §f").append(entry.getPlayer().getName())
+                    .append(" §8(").append(formatNanos(entry.getLastUpdateNanos())).append(")");
+        }
+
+        report.add(slowest.toString());
+
+        return report;
+    }
+
+    /**
+     * Formats the percentiles of a histogram.
+     *
+     * @param histogram the histogram to format. Cannot be null.
+     * @return the formatted percentiles
+     */
+    private static String formatHistogram(final @Nonnull LatencyHistogram histogram) {
+        return "§fp50 " + formatNanos(histogram.getPercentile(50))
+                + " §7| §fp95 " + formatNanos(histogram.getPercentile(95))
+                + " §7| §fp99 " + formatNanos(histogram.getPercentile(99))
+                + " §7| §fmax " + formatNanos(histogram.getMax())
+                + " §8(" + histogram.getCount() + ")";
+    }
+
+    /**
+     * Formats a duration.
+     *
+     * @param nanos the duration in nanoseconds.
+     * @return the formatted duration
+     */
+    private static String formatNanos(final long nanos) {
+        if (nanos >= 1_000_000) {
+            return String.format("%.2fms", nanos / 1_000_000D);
+        }
+
+        return String.format("%.1fµs", nanos / 1_000D);
+    }
+
+    /**
+     * Formats a number of bytes.
+     *
+     * @param bytes the number of bytes.
+     * @return the formatted number of bytes
+     */
+    private static String formatBytes(final long bytes) {
+        if (bytes >= 1024 * 1024) {
+            return String.format("%.1f MiB", bytes / (1024D * 1024D));
+        }
+
+        if (bytes >= 1024) {
+            return String.format("%.1f KiB", bytes / 1024D);
+        }
+
+        return bytes + " B";
+    }
+
+}
@@ -5,7 +5,12 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerChatEvent;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.event.player.PlayerEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
 import javax.annotation.Nonnull;
@@ -38,7 +43,7 @@ public final class KaxxScoreboardListener implements Listener {
 
         final Player player = event.getPlayer();
 
-        this.scoreboardHandler.createScoreboard(player.getUniqueId());
+        this.scoreboardHandler.createScoreboard(player);
     }
 
     /**
@@ -54,4 +59,58 @@ public final class KaxxScoreboardListener implements Listener {
         this.scoreboardHandler.removeScoreboard(player.getUniqueId());
     }
 
+    /**
+     * Records the movement of a player, including the rotation of their head, for the idle throttle.
+     *
+     * @param event the PlayerMoveEvent
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(final PlayerMoveEvent event) {
+        markActive(event);
+    }
+
+    /**
+     * Records the interaction of a player for the idle throttle.
+     *
+     * @param event the PlayerInteractEvent
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onInteract(final PlayerInteractEvent event) {
+        markActive(event);
+    }
+
+    /**
+     * Records the chat message of a player for the idle throttle. This event may be called asynchronously.
+     *
+     * @param event the AsyncPlayerChatEvent
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChat(final AsyncPlayerChatEvent event) {
+        markActive(event);
+    }
+
+    /**
+     * Records the command of a player for the idle throttle.
+     *
+     * @param event the PlayerCommandPreprocessEvent
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onCommand(final PlayerCommandPreprocessEvent event) {
+        markActive(event);
+    }
+
+    /**
+     * Records an activity of the player of an event, only if the idle throttle is enabled,
+     * since the movements of every player go through this method.
+     *
+     * @param event the event of the player
+     */
+    private void markActive(final @Nonnull PlayerEvent event) {
+        if (this.scoreboardHandler.getIdleAfter() == 0) {
+            return;
+        }
+
+        this.scoreboardHandler.markActive(event.getPlayer().getUniqueId());
+    }
+
 }
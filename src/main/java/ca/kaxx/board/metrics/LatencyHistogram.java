@@ -0,0 +1,136 @@
+package ca.kaxx.board.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations in nanoseconds, with one bucket per power of two.
+ * <p>
+ * Recording a duration only increments counters, so it never allocates and can be done from any thread.
+ * Percentiles are approximated by the upper bound of their bucket, which is at most twice the actual value.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * The number of buckets, bucket {@code i} holding the durations in {@code [2^(i-1), 2^i)}.
+     */
+    private static final int BUCKETS = 64;
+
+    /**
+     * The number of durations recorded in each bucket.
+     */
+    private final AtomicLongArray buckets;
+
+    /**
+     * The sum of the recorded durations.
+     */
+    private final LongAdder total;
+
+    /**
+     * The longest recorded duration.
+     */
+    private final AtomicLong max;
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        this.buckets = new AtomicLongArray(BUCKETS);
+        this.total = new LongAdder();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos the duration in nanoseconds. Negative durations are recorded as 0.
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(nanos, 0);
+
+        this.buckets.incrementAndGet(Math.min(BUCKETS - Long.numberOfLeadingZeros(value), BUCKETS - 1));
+        this.total.add(value);
+
+        long current;
+
+        while (value > (current = this.max.get()) && !this.max.compareAndSet(current, value)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     *
+     * @return the number of recorded durations
+     */
+    public long getCount() {
+        long count = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            count += this.buckets.get(i);
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the mean of the recorded durations.
+     *
+     * @return the mean in nanoseconds, or 0 if nothing has been recorded
+     */
+    public long getMean() {
+        final long count = getCount();
+
+        return count == 0 ? 0 : this.total.sum() / count;
+    }
+
+    /**
+     * Returns the longest recorded duration.
+     *
+     * @return the longest duration in nanoseconds, or 0 if nothing has been recorded
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * Returns an approximation of a percentile of the recorded durations.
+     *
+     * @param percentile the percentile, between 0 and 100.
+     * @return the upper bound of the bucket holding the percentile in nanoseconds, or 0 if nothing has been recorded
+     */
+    public long getPercentile(final double percentile) {
+        final long count = getCount();
+
+        if (count == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(count * Math.min(Math.max(percentile, 0), 100) / 100));
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.buckets.get(i);
+
+            if (seen >= rank) {
+                return Math.min(i == 0 ? 0 : (1L << i) - 1, getMax());
+            }
+        }
+
+        return getMax();
+    }
+
+    /**
+     * Removes every recorded duration.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets.set(i, 0);
+        }
+
+        this.total.reset();
+        this.max.set(0);
+    }
+
+}
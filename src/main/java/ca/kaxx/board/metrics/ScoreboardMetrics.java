@@ -0,0 +1,191 @@
+package ca.kaxx.board.metrics;
+
+import ca.kaxx.board.packets.ScoreboardPacketFactory;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import net.minecraft.server.v1_8_R3.Packet;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of the scoreboards of a handler: the duration of each tick of the update task, the latency of the
+ * adapters, and the packets and bytes sent per packet type.
+ * <p>
+ * Recording only increments counters, so it never allocates and can be done from any thread.
+ * While the metrics are disabled, nothing is recorded and no clock is read.
+ */
+@Getter
+public final class ScoreboardMetrics {
+
+    /**
+     * Determines whether the metrics are recorded.
+     */
+    @Setter
+    private volatile boolean enabled;
+
+    /**
+     * The durations of the ticks of the update task.
+     */
+    private final LatencyHistogram tickDurations;
+
+    /**
+     * The durations of the adapter calls rendering a scoreboard.
+     */
+    private final LatencyHistogram adapterLatencies;
+
+    /**
+     * The number of adapter calls which exceeded their time budget.
+     */
+    @Getter(AccessLevel.NONE)
+    private final LongAdder adapterTimeouts;
+
+    /**
+     * The number of updates put off because the channel of the player was saturated or the scoreboard exceeded its
+     * bytes per second.
+     */
+    @Getter(AccessLevel.NONE)
+    private final LongAdder deferredUpdates;
+
+    /**
+     * The number of packets sent, per packet type.
+     */
+    private final LongAdder[] packets;
+
+    /**
+     * The number of bytes sent, per packet type, before compression and framing.
+     */
+    private final LongAdder[] bytes;
+
+    /**
+     * Creates enabled metrics.
+     */
+    public ScoreboardMetrics() {
+        this.enabled = true;
+
+        this.tickDurations = new LatencyHistogram();
+        this.adapterLatencies = new LatencyHistogram();
+        this.adapterTimeouts = new LongAdder();
+        this.deferredUpdates = new LongAdder();
+
+        this.packets = new LongAdder[ScoreboardPacketType.VALUES.length];
+        this.bytes = new LongAdder[ScoreboardPacketType.VALUES.length];
+
+        for (int i = 0; i < this.packets.length; i++) {
+            this.packets[i] = new LongAdder();
+            this.bytes[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records the duration of a tick of the update task.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void recordTick(final long nanos) {
+        this.tickDurations.record(nanos);
+    }
+
+    /**
+     * Records the duration of the adapter calls rendering a scoreboard.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void recordAdapter(final long nanos) {
+        this.adapterLatencies.record(nanos);
+    }
+
+    /**
+     * Records an adapter call which exceeded its time budget.
+     */
+    public void recordAdapterTimeout() {
+        this.adapterTimeouts.increment();
+    }
+
+    /**
+     * Returns the number of adapter calls which exceeded their time budget.
+     *
+     * @return the number of timeouts
+     */
+    public long getAdapterTimeouts() {
+        return this.adapterTimeouts.sum();
+    }
+
+    /**
+     * Records an update put off because of the backpressure of the channel of the player or of their bytes per second.
+     */
+    public void recordDeferredUpdate() {
+        this.deferredUpdates.increment();
+    }
+
+    /**
+     * Returns the number of updates put off because of backpressure.
+     *
+     * @return the number of deferred updates
+     */
+    public long getDeferredUpdates() {
+        return this.deferredUpdates.sum();
+    }
+
+    /**
+     * Records a packet sent to a player.
+     *
+     * @param packet the packet. Cannot be null.
+     */
+    public void recordPacket(final @Nonnull Packet<?> packet) {
+        recordPacket(ScoreboardPacketType.of(packet), ScoreboardPacketFactory.sizeOf(packet));
+    }
+
+    /**
+     * Records a packet sent to a player, whose size is already known.
+     *
+     * @param type the packet type. Cannot be null.
+     * @param size the size of the packet in bytes, packet id included, or -1 if it is unknown
+     */
+    public void recordPacket(final @Nonnull ScoreboardPacketType type, final int size) {
+        final int ordinal = type.ordinal();
+
+        this.packets[ordinal].increment();
+
+        if (size > 0) {
+            this.bytes[ordinal].add(size);
+        }
+    }
+
+    /**
+     * Returns the number of packets sent of a type.
+     *
+     * @param type the packet type. Cannot be null.
+     * @return the number of packets
+     */
+    public long getPackets(final @Nonnull ScoreboardPacketType type) {
+        return this.packets[type.ordinal()].sum();
+    }
+
+    /**
+     * Returns the number of bytes sent in packets of a type, before compression and framing.
+     *
+     * @param type the packet type. Cannot be null.
+     * @return the number of bytes, which is 0 if the packet sizes cannot be computed on this server
+     */
+    public long getBytes(final @Nonnull ScoreboardPacketType type) {
+        return this.bytes[type.ordinal()].sum();
+    }
+
+    /**
+     * Removes every recorded metric.
+     */
+    public void reset() {
+        this.tickDurations.reset();
+        this.adapterLatencies.reset();
+        this.adapterTimeouts.reset();
+        this.deferredUpdates.reset();
+
+        for (int i = 0; i < this.packets.length; i++) {
+            this.packets[i].reset();
+            this.bytes[i].reset();
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+package ca.kaxx.board.metrics;
+
+import net.minecraft.server.v1_8_R3.*;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The types of packets sent by the scoreboards, as reported by the metrics.
+ */
+public enum ScoreboardPacketType {
+
+    TEAM,
+    SCORE,
+    OBJECTIVE,
+    DISPLAY,
+    OTHER;
+
+    /**
+     * The types, cached to avoid copying the array on each lookup.
+     */
+    static final ScoreboardPacketType[] VALUES = values();
+
+    /**
+     * Retrieves the type of a packet.
+     *
+     * @param packet the packet. Cannot be null.
+     * @return the type of the packet
+     */
+    public static ScoreboardPacketType of(final @Nonnull Packet<?> packet) {
+        if (packet instanceof PacketPlayOutScoreboardTeam) {
+            return TEAM;
+        }
+
+        if (packet instanceof PacketPlayOutScoreboardScore) {
+            return SCORE;
+        }
+
+        if (packet instanceof PacketPlayOutScoreboardObjective) {
+            return OBJECTIVE;
+        }
+
+        if (packet instanceof PacketPlayOutScoreboardDisplayObjective) {
+            return DISPLAY;
+        }
+
+        return OTHER;
+    }
+
+}
@@ -0,0 +1,69 @@
+package ca.kaxx.board.network;
+
+/**
+ * A token bucket limiting the bytes a scoreboard may send per second, refilled from the ticks of the handler clock.
+ * <p>
+ * The bucket holds at most one second of bytes. An update is never split, so the update which exceeds the budget is
+ * sent whole and the bucket goes into debt, which the next updates wait for before being sent.
+ * <p>
+ * It is not thread-safe: it is only used by the update task, which updates a given scoreboard from a single thread
+ * at a time.
+ */
+public final class ByteRateLimiter {
+
+    /**
+     * The number of ticks in a second.
+     */
+    private static final long TICKS_PER_SECOND = 20;
+
+    /**
+     * The longest refill taken into account, in ticks, which keeps the refill from overflowing.
+     */
+    private static final long MAX_REFILL_TICKS = TICKS_PER_SECOND * 3600;
+
+    /**
+     * The available bytes, multiplied by {@link #TICKS_PER_SECOND} so that the refill of each tick is exact.
+     * It is negative while the bucket is in debt.
+     */
+    private long tokens;
+
+    /**
+     * The tick on which the bucket was last refilled, or -1 if it has never been used.
+     */
+    private long lastTick = -1;
+
+    /**
+     * Refills the bucket up to the given tick, then checks if an update can be sent.
+     *
+     * @param tick           the current tick of the handler clock
+     * @param bytesPerSecond the bytes the scoreboard may send per second. Must be positive.
+     * @return true if the bucket is not empty nor in debt, false otherwise
+     */
+    public boolean tryAcquire(final long tick, final long bytesPerSecond) {
+        final long capacity = bytesPerSecond * TICKS_PER_SECOND;
+
+        if (this.lastTick < 0) {
+            this.tokens = capacity;
+        } else if (tick > this.lastTick) {
+            final long elapsed = Math.min(tick - this.lastTick, MAX_REFILL_TICKS);
+
+            this.tokens = Math.min(capacity, this.tokens + elapsed * bytesPerSecond);
+        }
+
+        this.lastTick = tick;
+
+        return this.tokens > 0;
+    }
+
+    /**
+     * Takes the bytes of an update which has been sent from the bucket.
+     *
+     * @param bytes the bytes sent
+     */
+    public void consume(final long bytes) {
+        if (bytes > 0) {
+            this.tokens -= bytes * TICKS_PER_SECOND;
+        }
+    }
+
+}
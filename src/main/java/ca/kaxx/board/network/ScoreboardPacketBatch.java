@@ -0,0 +1,240 @@
+package ca.kaxx.board.network;
+
+import ca.kaxx.board.metrics.ScoreboardMetrics;
+import ca.kaxx.board.metrics.ScoreboardPacketType;
+import ca.kaxx.board.packets.ScoreboardPacketFactory;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+import lombok.Getter;
+import lombok.Setter;
+import net.minecraft.server.v1_8_R3.NetworkManager;
+import net.minecraft.server.v1_8_R3.Packet;
+import net.minecraft.server.v1_8_R3.PlayerConnection;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the packets produced during one scoreboard update and writes them to the player's channel with a single
+ * flush.
+ * <p>
+ * Outside of a batch, packets are sent right away through the player's connection.
+ */
+public final class ScoreboardPacketBatch {
+
+    /**
+     * The connection of the player receiving the packets.
+     */
+    private final PlayerConnection connection;
+
+    /**
+     * The packets waiting for the batch to be flushed.
+     */
+    private final List<Packet<?>> packets;
+
+    /**
+     * The packets handed over to the channel's event loop and not written yet, guarded by the batch itself.
+     */
+    private List<Packet<?>> outbound;
+
+    /**
+     * The list the event loop is writing, swapped with {@link #outbound} on each write so that both are reused.
+     */
+    private List<Packet<?>> writing;
+
+    /**
+     * Determines whether a write of the outbound packets is already scheduled on the channel's event loop.
+     */
+    private boolean scheduled;
+
+    /**
+     * Writes the outbound packets, bound once so that handing them over to the event loop does not allocate.
+     */
+    private final Runnable writer;
+
+    /**
+     * The number of nested batches currently open.
+     */
+    private int depth;
+
+    /**
+     * The bytes of the packets added to this batch so far, before compression and framing,
+     * or 0 if the packet sizes cannot be computed on this server. They are only counted while the metrics are
+     * enabled or the bytes are {@link #setCountingBytes(boolean) counted}.
+     */
+    @Getter
+    private volatile long sentBytes;
+
+    /**
+     * Determines whether the bytes of the packets are counted even if the metrics are disabled,
+     * which the byte limit of the handler requires.
+     */
+    private volatile boolean countingBytes;
+
+    /**
+     * The metrics recording the packets of this batch, or null if they are not recorded.
+     */
+    @Setter
+    private volatile ScoreboardMetrics metrics;
+
+    /**
+     * Creates a new batch for the given connection.
+     *
+     * @param connection The connection of the player receiving the packets. Cannot be null.
+     */
+    public ScoreboardPacketBatch(final @Nonnull PlayerConnection connection) {
+        this.connection = connection;
+        this.packets = new ArrayList<>(32);
+        this.outbound = new ArrayList<>(32);
+        this.writing = new ArrayList<>(32);
+        this.writer = this::writeOutbound;
+    }
+
+    /**
+     * Sets whether the bytes of the packets are counted even if the metrics are disabled.
+     * This is called on every update, so the flag is only written when it changes.
+     *
+     * @param countingBytes true to count the bytes, false to only count them while the metrics are enabled
+     */
+    public void setCountingBytes(final boolean countingBytes) {
+        if (this.countingBytes != countingBytes) {
+            this.countingBytes = countingBytes;
+        }
+    }
+
+    /**
+     * Opens a batch. Every packet added until the matching {@link #flush()} is held back and written at once.
+     * Batches can be nested, only the outermost flush writes to the channel.
+     */
+    public void begin() {
+        this.depth++;
+    }
+
+    /**
+     * Adds a packet to the batch, or sends it right away if no batch is open.
+     *
+     * @param packet The packet to send. Cannot be null.
+     */
+    public void add(final @Nonnull Packet<?> packet) {
+        final ScoreboardMetrics metrics = this.metrics;
+        final boolean recording = metrics != null && metrics.isEnabled();
+
+        // Computing the size of a packet reads all of its fields, which is only worth it if someone reads it
+        if (recording || this.countingBytes) {
+            final int size = ScoreboardPacketFactory.sizeOf(packet);
+
+            if (size > 0) {
+                this.sentBytes += size;
+            }
+
+            if (recording) {
+                metrics.recordPacket(ScoreboardPacketType.of(packet), size);
+            }
+        }
+
+        if (this.depth == 0) {
+            this.connection.sendPacket(packet);
+            return;
+        }
+
+        this.packets.add(packet);
+    }
+
+    /**
+     * Closes a batch. When the outermost batch is closed, every pending packet is written to the player's channel
+     * with void promises and flushed once on the channel's event loop.
+     */
+    public void flush() {
+        if (this.depth == 0 || --this.depth > 0 || this.packets.isEmpty()) {
+            return;
+        }
+
+        final Channel channel = getChannel();
+
+        if (channel == null || !channel.isOpen()) {
+            for (final Packet<?> packet : this.packets) {
+                this.connection.sendPacket(packet);
+            }
+
+            this.packets.clear();
+            return;
+        }
+
+        final boolean schedule;
+
+        synchronized (this) {
+            for (int i = 0, size = this.packets.size(); i < size; i++) {
+                this.outbound.add(this.packets.get(i));
+            }
+
+            schedule = !this.scheduled;
+            this.scheduled = true;
+        }
+
+        this.packets.clear();
+
+        final EventLoop eventLoop = channel.eventLoop();
+
+        if (eventLoop.inEventLoop()) {
+            writeOutbound();
+        } else if (schedule) {
+            eventLoop.execute(this.writer);
+        }
+    }
+
+    /**
+     * Checks if the player's channel can take more packets, that is if its outbound buffer is not saturated.
+     *
+     * @return true if the channel is writable or the connection is not backed by a channel, false otherwise
+     */
+    public boolean isWritable() {
+        final Channel channel = getChannel();
+
+        return channel == null || channel.isWritable();
+    }
+
+    /**
+     * Retrieves the Netty channel of the player's connection.
+     *
+     * @return the channel, or null if the connection is not backed by a network manager
+     */
+    private @Nullable Channel getChannel() {
+        final NetworkManager networkManager = this.connection.networkManager;
+
+        return networkManager == null ? null : networkManager.channel;
+    }
+
+    /**
+     * Writes the outbound packets to the player's channel and flushes it once. Runs on the channel's event loop.
+     */
+    private void writeOutbound() {
+        final List<Packet<?>> packets;
+
+        synchronized (this) {
+            packets = this.outbound;
+            this.outbound = this.writing;
+            this.writing = packets;
+            this.scheduled = false;
+        }
+
+        if (packets.isEmpty()) {
+            return;
+        }
+
+        // The packets were handed over because the connection has a channel, which never changes afterwards
+        final Channel channel = getChannel();
+
+        try {
+            for (int i = 0, size = packets.size(); i < size; i++) {
+                channel.write(packets.get(i), channel.voidPromise());
+            }
+
+            channel.flush();
+        } finally {
+            packets.clear();
+        }
+    }
+
+}
@@ -1,6 +1,6 @@
 package ca.kaxx.board.packets;
 
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.PooledByteBufAllocator;
 import net.minecraft.server.v1_8_R3.PacketDataSerializer;
 import net.minecraft.server.v1_8_R3.PacketPlayOutScoreboardDisplayObjective;
 
@@ -10,13 +10,18 @@ import java.io.IOException;
 /**
  * Represents a packet for displaying a scoreboard objective.
  */
-public final class ScoreboardDisplayObjectivePacket extends PacketDataSerializer {
+public final class ScoreboardDisplayObjectivePacket extends PacketDataSerializer implements AutoCloseable {
+
+    /**
+     * The initial capacity of the pooled buffer, large enough for most packets of this type.
+     */
+    private static final int INITIAL_CAPACITY = 32;
 
     /**
      * Represents a packet for displaying a scoreboard objective.
      */
     public ScoreboardDisplayObjectivePacket() {
-        super(Unpooled.buffer());
+        super(PooledByteBufAllocator.DEFAULT.heapBuffer(INITIAL_CAPACITY));
     }
 
     /**
@@ -39,6 +44,8 @@ public final class ScoreboardDisplayObjectivePacket extends PacketDataSerializer
 
     /**
      * Builds a PacketPlayOutScoreboardDisplayObjective object.
+     * The pooled buffer is released once the packet is built, so a builder can only be built once.
+     * A builder which may not be built, because a setter can throw, is closed instead.
      *
      * @return The built PacketPlayOutScoreboardDisplayObjective object.
      * @throws RuntimeException if an IOException occurs during the building process.
@@ -50,11 +57,24 @@ public final class ScoreboardDisplayObjectivePacket extends PacketDataSerializer
             packet.a(this);
         } catch (IOException e) {
             throw new RuntimeException(e);
+        } finally {
+            release();
         }
 
         return packet;
     }
 
+    /**
+     * Releases the pooled buffer unless the packet has been built, so that a builder used in a try-with-resources
+     * statement does not leak its buffer when a setter throws or the packet is never built.
+     */
+    @Override
+    public void close() {
+        if (refCnt() > 0) {
+            release();
+        }
+    }
+
     public enum Type {
         TAB_LIST, SCORE, PLAYER
     }
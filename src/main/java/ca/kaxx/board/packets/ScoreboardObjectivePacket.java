@@ -1,6 +1,6 @@
 package ca.kaxx.board.packets;
 
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.PooledByteBufAllocator;
 import net.minecraft.server.v1_8_R3.IScoreboardCriteria;
 import net.minecraft.server.v1_8_R3.PacketDataSerializer;
 import net.minecraft.server.v1_8_R3.PacketPlayOutScoreboardObjective;
@@ -11,13 +11,18 @@ import java.io.IOException;
 /**
  * The ScoreboardObjectivePacket class represents a scoreboard objective packet used in network communication.
  */
-public final class ScoreboardObjectivePacket extends PacketDataSerializer {
+public final class ScoreboardObjectivePacket extends PacketDataSerializer implements AutoCloseable {
+
+    /**
+     * The initial capacity of the pooled buffer, large enough for most packets of this type.
+     */
+    private static final int INITIAL_CAPACITY = 64;
 
     /**
      * This class represents a scoreboard objective packet used in network communication.
      */
     public ScoreboardObjectivePacket() {
-        super(Unpooled.buffer());
+        super(PooledByteBufAllocator.DEFAULT.heapBuffer(INITIAL_CAPACITY));
     }
 
     /**
@@ -62,6 +67,8 @@ public final class ScoreboardObjectivePacket extends PacketDataSerializer {
 
     /**
      * Builds a PacketPlayOutScoreboardObjective object.
+     * The pooled buffer is released once the packet is built, so a builder can only be built once.
+     * A builder which may not be built, because a setter can throw, is closed instead.
      *
      * @return The built PacketPlayOutScoreboardObjective object.
      * @throws RuntimeException if there is an IOException during the build process.
@@ -73,8 +80,21 @@ public final class ScoreboardObjectivePacket extends PacketDataSerializer {
             packet.a(this);
         } catch (IOException e) {
             throw new RuntimeException(e);
+        } finally {
+            release();
         }
 
         return packet;
     }
+
+    /**
+     * Releases the pooled buffer unless the packet has been built, so that a builder used in a try-with-resources
+     * statement does not leak its buffer when a setter throws or the packet is never built.
+     */
+    @Override
+    public void close() {
+        if (refCnt() > 0) {
+            release();
+        }
+    }
 }
@@ -0,0 +1,367 @@
+package ca.kaxx.board.packets;
+
+import net.minecraft.server.v1_8_R3.*;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Collection;
+
+/**
+ * Builds the scoreboard packets by filling the fields of the NMS packets directly.
+ * <p>
+ * The packet builders of this package write every field into a buffer which the NMS packet then parses back.
+ * This factory skips that round trip through precomputed {@link VarHandle} field accessors, and falls back to the
+ * builders if the fields of the running server cannot be resolved.
+ * <p>
+ * The fields are set exactly like the builders would have them parsed, so both paths produce the same packets.
+ */
+public final class ScoreboardPacketFactory {
+
+    /**
+     * Accessors for the fields of {@link PacketPlayOutScoreboardTeam}.
+     */
+    private static final VarHandle TEAM_NAME, TEAM_DISPLAY_NAME, TEAM_PREFIX, TEAM_SUFFIX, TEAM_VISIBILITY,
+            TEAM_COLOR, TEAM_PLAYERS, TEAM_ACTION, TEAM_OPTIONS;
+
+    /**
+     * Accessors for the fields of {@link PacketPlayOutScoreboardScore}.
+     */
+    private static final VarHandle SCORE_NAME, SCORE_OBJECTIVE, SCORE_VALUE, SCORE_ACTION;
+
+    /**
+     * Accessors for the fields of {@link PacketPlayOutScoreboardObjective}.
+     */
+    private static final VarHandle OBJECTIVE_NAME, OBJECTIVE_TITLE, OBJECTIVE_DISPLAY_TYPE, OBJECTIVE_ACTION;
+
+    /**
+     * Accessors for the fields of {@link PacketPlayOutScoreboardDisplayObjective}.
+     */
+    private static final VarHandle DISPLAY_SLOT, DISPLAY_NAME;
+
+    /**
+     * Whether every accessor could be resolved, in which case the packets are built directly.
+     */
+    private static final boolean DIRECT;
+
+    static {
+        TEAM_NAME = find(PacketPlayOutScoreboardTeam.class, "a", String.class);
+        TEAM_DISPLAY_NAME = find(PacketPlayOutScoreboardTeam.class, "b", String.class);
+        TEAM_PREFIX = find(PacketPlayOutScoreboardTeam.class, "c", String.class);
+        TEAM_SUFFIX = find(PacketPlayOutScoreboardTeam.class, "d", String.class);
+        TEAM_VISIBILITY = find(PacketPlayOutScoreboardTeam.class, "e", String.class);
+        TEAM_COLOR = find(PacketPlayOutScoreboardTeam.class, "f", int.class);
+        TEAM_PLAYERS = find(PacketPlayOutScoreboardTeam.class, "g", Collection.class);
+        TEAM_ACTION = find(PacketPlayOutScoreboardTeam.class, "h", int.class);
+        TEAM_OPTIONS = find(PacketPlayOutScoreboardTeam.class, "i", int.class);
+
+        SCORE_NAME = find(PacketPlayOutScoreboardScore.class, "a", String.class);
+        SCORE_OBJECTIVE = find(PacketPlayOutScoreboardScore.class, "b", String.class);
+        SCORE_VALUE = find(PacketPlayOutScoreboardScore.class, "c", int.class);
+        SCORE_ACTION = find(PacketPlayOutScoreboardScore.class, "d", PacketPlayOutScoreboardScore.EnumScoreboardAction.class);
+
+        OBJECTIVE_NAME = find(PacketPlayOutScoreboardObjective.class, "a", String.class);
+        OBJECTIVE_TITLE = find(PacketPlayOutScoreboardObjective.class, "b", String.class);
+        OBJECTIVE_DISPLAY_TYPE = find(PacketPlayOutScoreboardObjective.class, "c", IScoreboardCriteria.EnumScoreboardHealthDisplay.class);
+        OBJECTIVE_ACTION = find(PacketPlayOutScoreboardObjective.class, "d", int.class);
+
+        DISPLAY_SLOT = find(PacketPlayOutScoreboardDisplayObjective.class, "a", int.class);
+        DISPLAY_NAME = find(PacketPlayOutScoreboardDisplayObjective.class, "b", String.class);
+
+        DIRECT = TEAM_NAME != null && TEAM_DISPLAY_NAME != null && TEAM_PREFIX != null && TEAM_SUFFIX != null
+                && TEAM_VISIBILITY != null && TEAM_COLOR != null && TEAM_PLAYERS != null && TEAM_ACTION != null
+                && TEAM_OPTIONS != null
+                && SCORE_NAME != null && SCORE_OBJECTIVE != null && SCORE_VALUE != null && SCORE_ACTION != null
+                && OBJECTIVE_NAME != null && OBJECTIVE_TITLE != null && OBJECTIVE_DISPLAY_TYPE != null
+                && OBJECTIVE_ACTION != null
+                && DISPLAY_SLOT != null && DISPLAY_NAME != null;
+    }
+
+    private ScoreboardPacketFactory() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    /**
+     * Resolves an accessor for a private field of a packet.
+     *
+     * @param owner The class declaring the field.
+     * @param name  The name of the field.
+     * @param type  The type of the field.
+     * @return the accessor, or null if the field cannot be accessed on this server
+     */
+    private static @Nullable VarHandle find(final @Nonnull Class<?> owner, final @Nonnull String name, final @Nonnull Class<?> type) {
+        try {
+            return MethodHandles.privateLookupIn(owner, MethodHandles.lookup()).findVarHandle(owner, name, type);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks if the packets are built directly, or through the serializer builders.
+     *
+     * @return true if the packets are built directly, false otherwise
+     */
+    public static boolean isDirect() {
+        return DIRECT;
+    }
+
+    /**
+     * Builds a team packet for a scoreboard line.
+     *
+     * @param name   The name of the team, also used as its display name. Cannot be null.
+     * @param action The action to perform on the team. Cannot be null.
+     * @param prefix The prefix of the team. Cannot be null.
+     * @param suffix The suffix of the team. Cannot be null.
+     * @param entry  The entry of the team, only sent on {@link ScoreboardAction#CREATE}. Cannot be null.
+     * @return the built PacketPlayOutScoreboardTeam
+     */
+    @SuppressWarnings("unchecked")
+    public static PacketPlayOutScoreboardTeam team(final @Nonnull String name, final @Nonnull ScoreboardAction action,
+                                                   final @Nonnull String prefix, final @Nonnull String suffix,
+                                                   final @Nonnull String entry) {
+        if (!DIRECT) {
+            try (final ScoreboardTeamPacket team = new ScoreboardTeamPacket()) {
+                team.setName(name);
+                team.setTeamAction(action);
+                team.setCustomName(name);
+                team.setPrefix(prefix);
+                team.setSuffix(suffix);
+                team.setVisibility(ScoreboardTeamBase.EnumNameTagVisibility.ALWAYS);
+                team.setCollision();
+                team.setTeamColor(EnumChatFormat.RESET);
+                team.setEntry(entry);
+
+                return team.build();
+            }
+        }
+
+        final PacketPlayOutScoreboardTeam packet = new PacketPlayOutScoreboardTeam();
+
+        TEAM_NAME.set(packet, name);
+        TEAM_ACTION.set(packet, action.ordinal());
+
+        if (action != ScoreboardAction.DELETE) {
+            TEAM_DISPLAY_NAME.set(packet, name);
+            TEAM_PREFIX.set(packet, prefix);
+            TEAM_SUFFIX.set(packet, suffix);
+            TEAM_OPTIONS.set(packet, ScoreboardTeamBase.EnumNameTagVisibility.ALWAYS.ordinal());
+            TEAM_VISIBILITY.set(packet, "never");
+            TEAM_COLOR.set(packet, EnumChatFormat.RESET.b());
+        }
+
+        if (action == ScoreboardAction.CREATE) {
+            ((Collection<String>) TEAM_PLAYERS.get(packet)).add(entry);
+        }
+
+        return packet;
+    }
+
+    /**
+     * Builds a score packet.
+     *
+     * @param name      The name of the score. Cannot be null.
+     * @param objective The name of the objective. Cannot be null.
+     * @param score     The value of the score, ignored on
+     *                  {@link PacketPlayOutScoreboardScore.EnumScoreboardAction#REMOVE}.
+     * @param action    The action to perform on the score. Cannot be null.
+     * @return the built PacketPlayOutScoreboardScore
+     */
+    public static PacketPlayOutScoreboardScore score(final @Nonnull String name, final @Nonnull String objective, final int score,
+                                                     final @Nonnull PacketPlayOutScoreboardScore.EnumScoreboardAction action) {
+        if (!DIRECT) {
+            try (final ScoreboardScorePacket packet = new ScoreboardScorePacket()) {
+                packet.setName(name);
+                packet.setBoardAction(action);
+                packet.setObjectiveName(objective);
+                packet.setScore(score);
+
+                return packet.build();
+            }
+        }
+
+        final PacketPlayOutScoreboardScore packet = new PacketPlayOutScoreboardScore();
+
+        SCORE_NAME.set(packet, name);
+        SCORE_ACTION.set(packet, action);
+        SCORE_OBJECTIVE.set(packet, objective);
+
+        if (action != PacketPlayOutScoreboardScore.EnumScoreboardAction.REMOVE) {
+            SCORE_VALUE.set(packet, score);
+        }
+
+        return packet;
+    }
+
+    /**
+     * Builds an objective packet.
+     *
+     * @param name        The name of the objective. Cannot be null.
+     * @param action      The action to perform on the objective. Cannot be null.
+     * @param title       The title of the objective, ignored on {@link ScoreboardAction#DELETE}. Cannot be null.
+     * @param displayType The display type of the objective. Cannot be null.
+     * @return the built PacketPlayOutScoreboardObjective
+     */
+    public static PacketPlayOutScoreboardObjective objective(final @Nonnull String name, final @Nonnull ScoreboardAction action,
+                                                             final @Nonnull String title,
+                                                             final @Nonnull IScoreboardCriteria.EnumScoreboardHealthDisplay displayType) {
+        if (!DIRECT) {
+            try (final ScoreboardObjectivePacket objective = new ScoreboardObjectivePacket()) {
+                objective.setObjectiveName(name);
+                objective.setBoardAction(action);
+                objective.setTitle(title);
+                objective.setDisplayType(displayType);
+
+                return objective.build();
+            }
+        }
+
+        final PacketPlayOutScoreboardObjective packet = new PacketPlayOutScoreboardObjective();
+
+        OBJECTIVE_NAME.set(packet, name);
+        OBJECTIVE_ACTION.set(packet, action.ordinal());
+
+        if (action != ScoreboardAction.DELETE) {
+            OBJECTIVE_TITLE.set(packet, title);
+            OBJECTIVE_DISPLAY_TYPE.set(packet, displayType);
+        }
+
+        return packet;
+    }
+
+    /**
+     * Builds a display objective packet.
+     *
+     * @param slot The display slot of the objective. Cannot be null.
+     * @param name The name of the objective. Cannot be null.
+     * @return the built PacketPlayOutScoreboardDisplayObjective
+     */
+    public static PacketPlayOutScoreboardDisplayObjective display(final @Nonnull ScoreboardDisplayObjectivePacket.Type slot,
+                                                                  final @Nonnull String name) {
+        if (!DIRECT) {
+            try (final ScoreboardDisplayObjectivePacket display = new ScoreboardDisplayObjectivePacket()) {
+                display.setType(slot);
+                display.setObjectiveName(name);
+
+                return display.build();
+            }
+        }
+
+        final PacketPlayOutScoreboardDisplayObjective packet = new PacketPlayOutScoreboardDisplayObjective();
+
+        DISPLAY_SLOT.set(packet, slot.ordinal());
+        DISPLAY_NAME.set(packet, name);
+
+        return packet;
+    }
+
+    /**
+     * Computes the size of a scoreboard packet once encoded, packet id included, before compression and framing.
+     * The fields are read directly, so nothing is encoded nor allocated.
+     *
+     * @param packet The packet to measure. Cannot be null.
+     * @return the size of the packet in bytes, or -1 if it is not a scoreboard packet or the fields cannot be read
+     */
+    public static int sizeOf(final @Nonnull Packet<?> packet) {
+        if (!DIRECT) {
+            return -1;
+        }
+
+        if (packet instanceof PacketPlayOutScoreboardTeam) {
+            final int action = (int) TEAM_ACTION.get(packet);
+            int size = 1 + sizeOf((String) TEAM_NAME.get(packet)) + 1;
+
+            if (action == 0 || action == 2) {
+                size += sizeOf((String) TEAM_DISPLAY_NAME.get(packet)) + sizeOf((String) TEAM_PREFIX.get(packet))
+                        + sizeOf((String) TEAM_SUFFIX.get(packet)) + 1 + sizeOf((String) TEAM_VISIBILITY.get(packet)) + 1;
+            }
+
+            if (action == 0 || action == 3 || action == 4) {
+                final Collection<?> players = (Collection<?>) TEAM_PLAYERS.get(packet);
+
+                size += varIntSize(players.size());
+
+                for (final Object player : players) {
+                    size += sizeOf((String) player);
+                }
+            }
+
+            return size;
+        }
+
+        if (packet instanceof PacketPlayOutScoreboardScore) {
+            final PacketPlayOutScoreboardScore.EnumScoreboardAction action =
+                    (PacketPlayOutScoreboardScore.EnumScoreboardAction) SCORE_ACTION.get(packet);
+
+            int size = 1 + sizeOf((String) SCORE_NAME.get(packet)) + varIntSize(action.ordinal())
+                    + sizeOf((String) SCORE_OBJECTIVE.get(packet));
+
+            if (action != PacketPlayOutScoreboardScore.EnumScoreboardAction.REMOVE) {
+                size += varIntSize((int) SCORE_VALUE.get(packet));
+            }
+
+            return size;
+        }
+
+        if (packet instanceof PacketPlayOutScoreboardObjective) {
+            final int action = (int) OBJECTIVE_ACTION.get(packet);
+            int size = 1 + sizeOf((String) OBJECTIVE_NAME.get(packet)) + 1;
+
+            if (action == 0 || action == 2) {
+                size += sizeOf((String) OBJECTIVE_TITLE.get(packet)) + (OBJECTIVE_DISPLAY_TYPE.get(packet)
+                        == IScoreboardCriteria.EnumScoreboardHealthDisplay.HEARTS ? 7 : 8);
+            }
+
+            return size;
+        }
+
+        if (packet instanceof PacketPlayOutScoreboardDisplayObjective) {
+            return 1 + 1 + sizeOf((String) DISPLAY_NAME.get(packet));
+        }
+
+        return -1;
+    }
+
+    /**
+     * Computes the size of an encoded string, its length prefix included.
+     *
+     * @param value The string to measure, null being encoded as an empty string.
+     * @return the size of the string in bytes
+     */
+    private static int sizeOf(final @Nullable String value) {
+        if (value == null) {
+            return 1;
+        }
+
+        int bytes = 0;
+
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+
+        return varIntSize(bytes) + bytes;
+    }
+
+    /**
+     * Computes the size of an encoded VarInt.
+     *
+     * @param value The value to measure.
+     * @return the size of the VarInt in bytes
+     */
+    private static int varIntSize(final int value) {
+        return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
+}
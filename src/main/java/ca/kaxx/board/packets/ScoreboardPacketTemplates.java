@@ -0,0 +1,108 @@
+package ca.kaxx.board.packets;
+
+import ca.kaxx.board.transport.ScoreboardNames;
+import net.minecraft.server.v1_8_R3.IScoreboardCriteria;
+import net.minecraft.server.v1_8_R3.PacketPlayOutScoreboardDisplayObjective;
+import net.minecraft.server.v1_8_R3.PacketPlayOutScoreboardObjective;
+import net.minecraft.server.v1_8_R3.PacketPlayOutScoreboardScore;
+import net.minecraft.server.v1_8_R3.PacketPlayOutScoreboardTeam;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Process-wide cache of the scoreboard packets that are the same for every player.
+ * <p>
+ * These packets are built once and shared by every board. They are never modified after being built,
+ * so the same instance can safely be written to any number of connections.
+ */
+public final class ScoreboardPacketTemplates {
+
+    /**
+     * The team DELETE packet of each line, indexed by line index.
+     */
+    private static final PacketPlayOutScoreboardTeam[] TEAM_DELETES =
+            new PacketPlayOutScoreboardTeam[ScoreboardNames.LINES];
+
+    /**
+     * The score REMOVE packet of each line, indexed by line index.
+     */
+    private static final PacketPlayOutScoreboardScore[] SCORE_REMOVES =
+            new PacketPlayOutScoreboardScore[ScoreboardNames.LINES];
+
+    /**
+     * The display objective packet of each display slot, indexed by ordinal.
+     */
+    private static final PacketPlayOutScoreboardDisplayObjective[] DISPLAYS;
+
+    /**
+     * The objective DELETE packet.
+     */
+    private static final PacketPlayOutScoreboardObjective OBJECTIVE_DELETE;
+
+    static {
+        for (int i = 0; i < ScoreboardNames.LINES; i++) {
+            final String entry = ScoreboardNames.entry(i);
+
+            TEAM_DELETES[i] = ScoreboardPacketFactory.team(ScoreboardNames.teamName(i), ScoreboardAction.DELETE, "", "",
+                    entry);
+            SCORE_REMOVES[i] = ScoreboardPacketFactory.score(entry, ScoreboardNames.OBJECTIVE_NAME, i,
+                    PacketPlayOutScoreboardScore.EnumScoreboardAction.REMOVE);
+        }
+
+        final ScoreboardDisplayObjectivePacket.Type[] slots = ScoreboardDisplayObjectivePacket.Type.values();
+
+        DISPLAYS = new PacketPlayOutScoreboardDisplayObjective[slots.length];
+
+        for (final ScoreboardDisplayObjectivePacket.Type slot : slots) {
+            DISPLAYS[slot.ordinal()] = ScoreboardPacketFactory.display(slot, ScoreboardNames.OBJECTIVE_NAME);
+        }
+
+        OBJECTIVE_DELETE = ScoreboardPacketFactory.objective(ScoreboardNames.OBJECTIVE_NAME, ScoreboardAction.DELETE,
+                "", IScoreboardCriteria.EnumScoreboardHealthDisplay.INTEGER);
+    }
+
+    private ScoreboardPacketTemplates() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    /**
+     * Returns the shared packet deleting the team of a line.
+     *
+     * @param index the index of the line, between 0 and 14 (inclusive)
+     * @return the team DELETE packet of the line
+     */
+    public static PacketPlayOutScoreboardTeam teamDelete(final int index) {
+        return TEAM_DELETES[index];
+    }
+
+    /**
+     * Returns the shared packet removing the score entry of a line.
+     *
+     * @param index the index of the line, between 0 and 14 (inclusive)
+     * @return the score REMOVE packet of the line
+     */
+    public static PacketPlayOutScoreboardScore scoreRemove(final int index) {
+        return SCORE_REMOVES[index];
+    }
+
+    /**
+     * Returns the shared packet displaying the objective in a slot.
+     *
+     * @param slot the display slot. Cannot be null.
+     * @return the display objective packet of the slot
+     */
+    public static PacketPlayOutScoreboardDisplayObjective display(
+            final @Nonnull ScoreboardDisplayObjectivePacket.Type slot) {
+        return DISPLAYS[slot.ordinal()];
+    }
+
+    /**
+     * Returns the shared packet deleting the objective.
+     *
+     * @return the objective DELETE packet
+     */
+    public static PacketPlayOutScoreboardObjective objectiveDelete() {
+        return OBJECTIVE_DELETE;
+    }
+
+}
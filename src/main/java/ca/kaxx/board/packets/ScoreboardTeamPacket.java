@@ -1,6 +1,6 @@
 package ca.kaxx.board.packets;
 
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.PooledByteBufAllocator;
 import net.minecraft.server.v1_8_R3.EnumChatFormat;
 import net.minecraft.server.v1_8_R3.PacketDataSerializer;
 import net.minecraft.server.v1_8_R3.PacketPlayOutScoreboardTeam;
@@ -13,14 +13,20 @@ import java.io.IOException;
  * This class represents a Scoreboard Team Packet.
  * It extends the PacketDataSerializer class.
  */
-public final class ScoreboardTeamPacket extends PacketDataSerializer {
+public final class ScoreboardTeamPacket extends PacketDataSerializer implements AutoCloseable {
+
+    /**
+     * The initial capacity of the pooled buffer, large enough for most packets of this type.
+     */
+    private static final int INITIAL_CAPACITY = 64;
 
     /**
      * Constructs a new ScoreboardTeamPacket object.
-     * This constructor initializes the underlying buffer using the Unpooled.buffer() method from the parent class PacketDataSerializer.
+     * This constructor initializes the underlying buffer from the pooled allocator, it is released by {@link #build()}
+     * or {@link #close()}.
      */
     public ScoreboardTeamPacket() {
-        super(Unpooled.buffer());
+        super(PooledByteBufAllocator.DEFAULT.heapBuffer(INITIAL_CAPACITY));
     }
 
     /**
@@ -106,6 +112,8 @@ public final class ScoreboardTeamPacket extends PacketDataSerializer {
 
     /**
      * Builds a PacketPlayOutScoreboardTeam object.
+     * The pooled buffer is released once the packet is built, so a builder can only be built once.
+     * A builder which may not be built, because a setter can throw, is closed instead.
      *
      * @return The built PacketPlayOutScoreboardTeam object.
      * @throws RuntimeException If an IOException occurs during the build process.
@@ -117,8 +125,21 @@ public final class ScoreboardTeamPacket extends PacketDataSerializer {
             packet.a(this);
         } catch (IOException e) {
             throw new RuntimeException(e);
+        } finally {
+            release();
         }
 
         return packet;
     }
+
+    /**
+     * Releases the pooled buffer unless the packet has been built, so that a builder used in a try-with-resources
+     * statement does not leak its buffer when a setter throws or the packet is never built.
+     */
+    @Override
+    public void close() {
+        if (refCnt() > 0) {
+            release();
+        }
+    }
 }
@@ -0,0 +1,259 @@
+package ca.kaxx.board.registry;
+
+import ca.kaxx.board.KaxxScoreboard;
+import ca.kaxx.board.KaxxScoreboardGroup;
+import ca.kaxx.board.KaxxScoreboardHandle;
+import ca.kaxx.board.network.ByteRateLimiter;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import net.minecraft.server.v1_8_R3.PlayerConnection;
+import org.bukkit.entity.Player;
+
+import javax.annotation.Nonnull;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Represents a registered scoreboard, along with the player it is displayed to and its connection.
+ */
+@Getter
+public final class KaxxScoreboardEntry {
+
+    /**
+     * The unique ID of the player.
+     */
+    private final UUID uniqueId;
+
+    /**
+     * The player the scoreboard is displayed to.
+     */
+    private final Player player;
+
+    /**
+     * The connection of the player.
+     */
+    private final PlayerConnection connection;
+
+    /**
+     * The scoreboard displayed to the player.
+     */
+    private final KaxxScoreboard scoreboard;
+
+    /**
+     * The offset, in ticks, of the updates of this scoreboard.
+     * It spreads the scoreboards sharing the same refresh rate across the ticks of that rate.
+     */
+    private final int phase;
+
+    /**
+     * The refresh rate, in ticks, of this scoreboard, or 0 to use the refresh rate of the handler.
+     */
+    @Setter
+    private volatile long refreshRate;
+
+    /**
+     * Determines whether the updates of this scoreboard are paused. A paused scoreboard keeps what it displays,
+     * and catches up with a single update once it is resumed.
+     */
+    @Setter
+    private volatile boolean paused;
+
+    /**
+     * The tick of the handler clock on which the player last moved or interacted, from which the idle throttle
+     * decides whether they are idle.
+     */
+    @Setter
+    private volatile long lastActiveTick;
+
+    /**
+     * Limits the bytes this scoreboard sends per second, when the handler has a cap.
+     */
+    private final ByteRateLimiter byteLimiter;
+
+    /**
+     * The push-style handle of this scoreboard, or null if the scoreboard is rendered from the adapter.
+     */
+    @Setter
+    private volatile KaxxScoreboardHandle handle;
+
+    /**
+     * The group whose board is displayed instead of this scoreboard, or null if this scoreboard is rendered on its own.
+     */
+    @Setter
+    private volatile KaxxScoreboardGroup group;
+
+    /**
+     * The duration, in nanoseconds, of the last update of this scoreboard, only recorded while the metrics are enabled.
+     */
+    @Setter
+    private volatile long lastUpdateNanos;
+
+    /**
+     * The number of consecutive adapter calls which exceeded their time budget for this scoreboard.
+     */
+    private volatile int adapterOverruns;
+
+    /**
+     * The number of adapter calls which exceeded their time budget for this scoreboard.
+     */
+    private volatile long adapterTimeouts;
+
+    /**
+     * Determines whether the last update of this scoreboard failed, so that a failing scoreboard is only
+     * reported once until it is rendered again.
+     */
+    private volatile boolean adapterFailing;
+
+    /**
+     * Determines whether the scoreboard has to be cleared before its next update, since its lines are now rendered
+     * from another source than the one which displayed them.
+     */
+    @Getter(AccessLevel.NONE)
+    private final AtomicBoolean resetRequested = new AtomicBoolean();
+
+    /**
+     * Creates a new entry for the given player.
+     *
+     * @param player     The player the scoreboard is displayed to. Cannot be null.
+     * @param connection The connection of the player. Cannot be null.
+     * @param scoreboard The scoreboard displayed to the player. Cannot be null.
+     * @param phase      The offset, in ticks, of the updates of this scoreboard.
+     */
+    public KaxxScoreboardEntry(final @Nonnull Player player, final @Nonnull PlayerConnection connection,
+                               final @Nonnull KaxxScoreboard scoreboard, final int phase) {
+        this.uniqueId = player.getUniqueId();
+        this.player = player;
+        this.connection = connection;
+        this.scoreboard = scoreboard;
+        this.phase = phase & Integer.MAX_VALUE;
+        this.byteLimiter = new ByteRateLimiter();
+    }
+
+    /**
+     * Checks if this scoreboard has to be updated on the given tick.
+     *
+     * @param tick               The current tick of the update task.
+     * @param defaultRefreshRate The refresh rate of the handler, used if this scoreboard has none.
+     * @return true if this scoreboard is due on the given tick, false otherwise
+     */
+    public boolean isDue(final long tick, final long defaultRefreshRate) {
+        return isDue(tick, defaultRefreshRate, 0L, 0L);
+    }
+
+    /**
+     * Checks if this scoreboard has to be updated on the given tick, refreshing it at the idle refresh rate
+     * once the player has not moved nor interacted for the given number of ticks.
+     *
+     * @param tick               The current tick of the update task.
+     * @param defaultRefreshRate The refresh rate of the handler, used if this scoreboard has none.
+     * @param idleAfter          The number of ticks without activity after which the player is idle, or 0 if idle
+     *                           players are not throttled.
+     * @param idleRefreshRate    The refresh rate of the scoreboards of idle players, in ticks.
+     * @return true if this scoreboard is due on the given tick, false otherwise
+     */
+    public boolean isDue(final long tick, final long defaultRefreshRate, final long idleAfter,
+                         final long idleRefreshRate) {
+        long rate = this.refreshRate > 0 ? this.refreshRate : defaultRefreshRate;
+
+        if (idleAfter > 0 && tick - this.lastActiveTick >= idleAfter) {
+            rate = Math.max(rate, idleRefreshRate);
+        }
+
+        return rate <= 1 || (tick + this.phase) % rate == 0;
+    }
+
+    /**
+     * Records an activity of the player on the given tick.
+     * The tick is only written if it changed, since this is called on every movement of the player.
+     *
+     * @param tick The current tick of the handler clock.
+     */
+    public void markActive(final long tick) {
+        if (this.lastActiveTick != tick) {
+            this.lastActiveTick = tick;
+        }
+    }
+
+    /**
+     * Records an adapter call which exceeded its time budget.
+     * This is called by the update task, which is the only one updating a given scoreboard at a time.
+     *
+     * @return the number of consecutive adapter calls which exceeded their time budget
+     */
+    public int recordAdapterOverrun() {
+        this.adapterTimeouts++;
+        return ++this.adapterOverruns;
+    }
+
+    /**
+     * Records an adapter call which completed within its time budget.
+     */
+    public void resetAdapterOverruns() {
+        if (this.adapterOverruns != 0) {
+            this.adapterOverruns = 0;
+        }
+    }
+
+    /**
+     * Records a refresh on which the update of the scoreboard failed, in its adapter or while rendering it.
+     * This is called by the update task, which is the only one updating a given scoreboard at a time.
+     *
+     * @return true if the previous update did not fail, false if the scoreboard was already failing
+     */
+    public boolean recordAdapterFailure() {
+        if (this.adapterFailing) {
+            return false;
+        }
+
+        this.adapterFailing = true;
+        return true;
+    }
+
+    /**
+     * Records a refresh on which the scoreboard was rendered.
+     */
+    public void resetAdapterFailure() {
+        if (this.adapterFailing) {
+            this.adapterFailing = false;
+        }
+    }
+
+    /**
+     * Requests the scoreboard to be cleared before its next update, so that it is rendered from a known state.
+     * This can be called from any thread.
+     */
+    public void requestReset() {
+        this.resetRequested.set(true);
+    }
+
+    /**
+     * Consumes a reset requested through {@link #requestReset()}.
+     * This is called by the update task, which is the only one updating a given scoreboard at a time.
+     *
+     * @return true if a reset was requested since the last call, false otherwise
+     */
+    public boolean pollReset() {
+        return this.resetRequested.get() && this.resetRequested.getAndSet(false);
+    }
+
+    /**
+     * Destroys the scoreboard client-side, if the player is still connected and the scoreboard has been displayed.
+     * This must be called from the thread updating the scoreboard, or once the update task has been stopped.
+     */
+    public void destroyScoreboard() {
+        if (isConnected() && this.scoreboard.isHasObjective()) {
+            this.scoreboard.destroy();
+        }
+    }
+
+    /**
+     * Checks if the player is still connected, according to the transport of their scoreboard.
+     *
+     * @return true if the player can still receive changes, false otherwise
+     */
+    public boolean isConnected() {
+        return this.scoreboard.getTransport().isConnected();
+    }
+
+}
@@ -0,0 +1,232 @@
+package ca.kaxx.board.registry;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A thread-safe registry of the scoreboards, keyed by player UUID.
+ * <p>
+ * Players can join and leave from any thread while the update task iterates the registry: the task reads an
+ * immutable snapshot which is only rebuilt after the registry has changed, so iterating it is lock-free and never
+ * observes a partial change. Every change bumps the version of the registry, and a snapshot is only published if the
+ * version did not change while it was built, nor replaces a snapshot of a later version.
+ */
+public final class KaxxScoreboardRegistry {
+
+    /**
+     * The snapshot of an empty registry.
+     */
+    private static final KaxxScoreboardEntry[] EMPTY = new KaxxScoreboardEntry[0];
+
+    /**
+     * The snapshot of the registry before anything was registered.
+     */
+    private static final Snapshot INITIAL = new Snapshot(0L, EMPTY);
+
+    /**
+     * The registered entries, keyed by player UUID.
+     */
+    private final ConcurrentMap<UUID, KaxxScoreboardEntry> entries;
+
+    /**
+     * The read-only view of the registered entries.
+     */
+    private final Map<UUID, KaxxScoreboardEntry> view;
+
+    /**
+     * The version of the registry, incremented after every change.
+     */
+    private final AtomicLong version;
+
+    /**
+     * The number of entries that have been registered, used to spread their update phases.
+     */
+    private final AtomicInteger registrations;
+
+    /**
+     * The last published snapshot of the registered entries.
+     */
+    private final AtomicReference<Snapshot> snapshot;
+
+    /**
+     * Creates an empty registry.
+     */
+    public KaxxScoreboardRegistry() {
+        this.entries = new ConcurrentHashMap<>();
+        this.view = Collections.unmodifiableMap(this.entries);
+        this.version = new AtomicLong();
+        this.registrations = new AtomicInteger();
+        this.snapshot = new AtomicReference<>(INITIAL);
+    }
+
+    /**
+     * Registers an entry, unless one is already registered for the same player.
+     *
+     * @param entry The entry to register. Cannot be null.
+     * @return true if the entry was registered, false if the player already had one
+     */
+    public boolean register(final @Nonnull KaxxScoreboardEntry entry) {
+        if (this.entries.putIfAbsent(entry.getUniqueId(), entry) != null) {
+            return false;
+        }
+
+        this.version.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Returns the update phase of the next entry, which increases with every call
+     * so that consecutive registrations are updated on different ticks.
+     *
+     * @return the update phase of the next entry
+     */
+    public int nextPhase() {
+        return this.registrations.getAndIncrement();
+    }
+
+    /**
+     * Unregisters the entry of a player.
+     *
+     * @param uniqueId The UUID of the player. Cannot be null.
+     * @return the unregistered entry, or null if the player had none
+     */
+    public @Nullable KaxxScoreboardEntry unregister(final @Nonnull UUID uniqueId) {
+        final KaxxScoreboardEntry entry = this.entries.remove(uniqueId);
+
+        if (entry != null) {
+            this.version.incrementAndGet();
+        }
+
+        return entry;
+    }
+
+    /**
+     * Retrieves the entry of a player.
+     *
+     * @param uniqueId The UUID of the player. Cannot be null.
+     * @return the entry of the player, or null if the player has none
+     */
+    public @Nullable KaxxScoreboardEntry get(final @Nonnull UUID uniqueId) {
+        return this.entries.get(uniqueId);
+    }
+
+    /**
+     * Checks if a player has a registered entry.
+     *
+     * @param uniqueId The UUID of the player. Cannot be null.
+     * @return true if the player has an entry, false otherwise
+     */
+    public boolean contains(final @Nonnull UUID uniqueId) {
+        return this.entries.containsKey(uniqueId);
+    }
+
+    /**
+     * Returns a read-only view of the registered entries, keyed by player UUID.
+     *
+     * @return the view of the registered entries
+     */
+    public @Nonnull Map<UUID, KaxxScoreboardEntry> asMap() {
+        return this.view;
+    }
+
+    /**
+     * Returns the number of registered entries.
+     *
+     * @return the number of registered entries
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns a snapshot of the registered entries.
+     * The returned array is shared and must not be modified. It is only rebuilt after the registry has changed,
+     * and is rebuilt again if the registry changes while it is being built.
+     *
+     * @return the registered entries at the time of the call
+     */
+    public KaxxScoreboardEntry[] snapshot() {
+        while (true) {
+            Snapshot current = this.snapshot.get();
+            final long version = this.version.get();
+
+            if (current.version() == version) {
+                return current.entries();
+            }
+
+            final KaxxScoreboardEntry[] entries = this.entries.values().toArray(EMPTY);
+
+            if (this.version.get() != version) {
+                continue;
+            }
+
+            final Snapshot built = new Snapshot(version, entries);
+
+            // A snapshot built concurrently from a later version is kept, it is at least as recent as this one
+            while (current.version() < version) {
+                if (this.snapshot.compareAndSet(current, built)) {
+                    return entries;
+                }
+
+                current = this.snapshot.get();
+            }
+
+            return current.entries();
+        }
+    }
+
+    /**
+     * Unregisters every entry whose player is no longer connected.
+     *
+     * @return the number of unregistered entries
+     */
+    public int sweep() {
+        int removed = 0;
+
+        for (final KaxxScoreboardEntry entry : snapshot()) {
+            if (!entry.isConnected() && this.entries.remove(entry.getUniqueId(), entry)) {
+                removed++;
+            }
+        }
+
+        if (removed > 0) {
+            this.version.incrementAndGet();
+        }
+
+        return removed;
+    }
+
+    /**
+     * Unregisters every entry.
+     *
+     * @return the entries that were registered
+     */
+    public KaxxScoreboardEntry[] clear() {
+        final KaxxScoreboardEntry[] cleared = this.entries.values().toArray(EMPTY);
+
+        for (final KaxxScoreboardEntry entry : cleared) {
+            this.entries.remove(entry.getUniqueId(), entry);
+        }
+
+        this.version.incrementAndGet();
+        return cleared;
+    }
+
+    /**
+     * The registered entries at a version of the registry.
+     *
+     * @param version The version of the registry the entries were read at.
+     * @param entries The registered entries.
+     */
+    private record Snapshot(long version, @Nonnull KaxxScoreboardEntry[] entries) {
+    }
+
+}
@@ -0,0 +1,91 @@
+package ca.kaxx.board.task;
+
+import ca.kaxx.board.adapter.KaxxScoreboardAdapter;
+import ca.kaxx.board.adapter.KaxxScoreboardTemplateAdapter;
+import ca.kaxx.board.template.ScoreboardLineTemplate;
+import org.bukkit.entity.Player;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Everything an adapter provided for a scoreboard, collected away from the update task so that the adapter calls
+ * can run on another thread or asynchronously, and rendered by the update task once they completed.
+ */
+final class AdapterResult {
+
+    /**
+     * The title of the scoreboard.
+     */
+    final String title;
+
+    /**
+     * The lines of the scoreboard from top to bottom, or null if the adapter provided templates.
+     */
+    final Collection<String> lines;
+
+    /**
+     * The line templates of the scoreboard from top to bottom, or null if the adapter provided lines.
+     */
+    final List<ScoreboardLineTemplate> templates;
+
+    /**
+     * The rendered values of the templates, or null if the adapter provided lines.
+     */
+    final String[] values;
+
+    /**
+     * Creates a result.
+     *
+     * @param title     the title of the scoreboard.
+     * @param lines     the lines of the scoreboard, or null if the adapter provided templates.
+     * @param templates the line templates of the scoreboard, or null if the adapter provided lines.
+     * @param values    the rendered values of the templates, or null if the adapter provided lines.
+     */
+    private AdapterResult(final @Nonnull String title, final @Nullable Collection<String> lines,
+                          final @Nullable List<ScoreboardLineTemplate> templates, final @Nullable String[] values) {
+        this.title = title;
+        this.lines = lines;
+        this.templates = templates;
+        this.values = values;
+    }
+
+    /**
+     * Creates the result of an adapter providing lines.
+     *
+     * @param title the title of the scoreboard.
+     * @param lines the lines of the scoreboard, from top to bottom.
+     * @return the result
+     */
+    static AdapterResult of(final @Nonnull String title, final @Nonnull Collection<String> lines) {
+        return new AdapterResult(title, lines, null, null);
+    }
+
+    /**
+     * Calls an adapter for a player, rendering the values of its templates if it is a template adapter.
+     *
+     * @param adapter the adapter to call. Cannot be null.
+     * @param player  the player owning the scoreboard. Cannot be null.
+     * @return the result of the calls
+     */
+    static AdapterResult call(final @Nonnull KaxxScoreboardAdapter adapter, final @Nonnull Player player) {
+        if (!(adapter instanceof KaxxScoreboardTemplateAdapter templateAdapter)) {
+            return of(adapter.getTitle(player), adapter.getLines(player));
+        }
+
+        final String title = templateAdapter.getTitle(player);
+        final List<ScoreboardLineTemplate> templates = templateAdapter.getTemplates(player);
+        final String[] values = new String[templates.size()];
+
+        for (int i = 0; i < values.length; i++) {
+            final ScoreboardLineTemplate template = templates.get(i);
+
+            values[i] = template.hasSlots() ? template.render(player, templateAdapter) : null;
+        }
+
+        return new AdapterResult(title, null, templates, values);
+    }
+
+}
@@ -1,27 +1,89 @@
 package ca.kaxx.board.task;
 
 import ca.kaxx.board.KaxxScoreboard;
+import ca.kaxx.board.KaxxScoreboardGroup;
+import ca.kaxx.board.KaxxScoreboardHandle;
 import ca.kaxx.board.KaxxScoreboardHandler;
+import ca.kaxx.board.ScoreboardLine;
 import ca.kaxx.board.adapter.KaxxScoreboardAdapter;
-import com.google.common.collect.Lists;
-import org.bukkit.Bukkit;
+import ca.kaxx.board.adapter.KaxxScoreboardAsyncAdapter;
+import ca.kaxx.board.adapter.KaxxScoreboardGroupAdapter;
+import ca.kaxx.board.adapter.KaxxScoreboardTemplateAdapter;
+import ca.kaxx.board.animation.ScoreboardAnimation;
+import ca.kaxx.board.cache.ScoreboardLineCache;
+import ca.kaxx.board.metrics.ScoreboardMetrics;
+import ca.kaxx.board.network.ByteRateLimiter;
+import ca.kaxx.board.registry.KaxxScoreboardEntry;
+import ca.kaxx.board.registry.KaxxScoreboardRegistry;
+import ca.kaxx.board.template.ScoreboardLineTemplate;
+import ca.kaxx.board.transport.ScoreboardTransport;
+import com.google.common.base.Preconditions;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
 
 import javax.annotation.Nonnull;
-import java.util.Comparator;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
-import java.util.UUID;
+import java.util.RandomAccess;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
 
 public final class KaxxScoreboardUpdateTask extends BukkitRunnable {
 
+    /**
+     * The minimum number of players in a shard, below which splitting the update is not worth the hand-off.
+     */
+    private static final int MIN_SHARD_SIZE = 32;
+
+    /**
+     * The interval at which {@link #stop(long, TimeUnit)} checks whether the running update completed.
+     */
+    private static final long STOP_POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * The split lines of the scoreboard being rendered on each thread, indexed by index,
+     * kept to avoid allocating on each refresh.
+     */
+    private static final ThreadLocal<ScoreboardLine[]> LINES = ThreadLocal.withInitial(() -> new ScoreboardLine[15]);
+
     /**
      * Represents a handler for scoreboards in the KaxxScoreboard library.
      */
     private final KaxxScoreboardHandler scoreboardHandler;
 
+    /**
+     * Determines whether an update is currently running.
+     * An update is skipped while the previous one is still running, so that the packets of a player are never
+     * produced by two updates at the same time. It stays set once the task has been
+     * {@link #stop(long, TimeUnit) stopped}.
+     */
+    private final AtomicBoolean running;
+
+    /**
+     * Determines whether the task has been stopped, so that no update starts anymore even if the running update
+     * could not be waited for.
+     */
+    private volatile boolean stopped;
+
+    /**
+     * The adapter calls which exceeded their time budget, or the asynchronous adapter calls,
+     * which have not been rendered yet, per scoreboard.
+     */
+    private final ConcurrentMap<KaxxScoreboardEntry, PendingCall> pendingCalls;
+
     /**
      * Updates the scoreboards for all players in the scoreboard handler.
      *
@@ -29,6 +91,8 @@ public final class KaxxScoreboardUpdateTask extends BukkitRunnable {
      */
     public KaxxScoreboardUpdateTask(final @Nonnull KaxxScoreboardHandler scoreboardHandler) {
         this.scoreboardHandler = scoreboardHandler;
+        this.running = new AtomicBoolean();
+        this.pendingCalls = new ConcurrentHashMap<>();
     }
 
     /**
@@ -36,48 +100,666 @@ public final class KaxxScoreboardUpdateTask extends BukkitRunnable {
      */
     @Override
     public void run() {
-        if (this.scoreboardHandler.getScoreboardAnimation() != null) {
-            this.scoreboardHandler.getScoreboardAnimation().buildNext();
+        if (this.stopped || !this.running.compareAndSet(false, true)) {
+            return;
+        }
+
+        final ScoreboardMetrics metrics = this.scoreboardHandler.getMetrics();
+        final boolean recording = metrics.isEnabled();
+        final long start = recording ? System.nanoTime() : 0L;
+
+        try {
+            update(recording ? metrics : null);
+        } finally {
+            if (recording) {
+                metrics.recordTick(System.nanoTime() - start);
+            }
+
+            this.running.set(false);
+        }
+    }
+
+    /**
+     * Stops the task: skips every later update, and waits for the running update to complete if any.
+     * This is called by the handler once the task has been cancelled, so that no scoreboard is rendered while the
+     * handler destroys them.
+     * <p>
+     * The wait is bounded, since the running update may itself wait for the thread stopping the task, for instance
+     * through an adapter calling a method of the handler or running a task on the main thread.
+     *
+     * @param timeout The maximum time to wait for the running update.
+     * @param unit    The unit of the timeout. Cannot be null.
+     * @return true if no update is running anymore, false if the running update did not complete in time
+     */
+    public boolean stop(final long timeout, final @Nonnull TimeUnit unit) {
+        this.stopped = true;
+
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        while (!this.running.compareAndSet(false, true)) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+
+            LockSupport.parkNanos(STOP_POLL_NANOS);
         }
 
-        for (final Map.Entry<UUID, KaxxScoreboard> entry : scoreboardHandler.getScoreboards().entrySet()) {
-            final Player player = Bukkit.getPlayer(entry.getKey());
-            final KaxxScoreboard scoreboard = entry.getValue();
+        return true;
+    }
+
+    /**
+     * Updates the scoreboards which are due on the current tick, splitting them into shards updated in parallel
+     * if the handler has an update executor.
+     *
+     * @param metrics The metrics to record, or null if they are disabled.
+     */
+    private void update(final @Nullable ScoreboardMetrics metrics) {
+        final long tick = this.scoreboardHandler.getClock().advance();
+        final long refreshRate = this.scoreboardHandler.getRefreshRate();
+
+        if (tick % refreshRate == 0) {
+            advanceLegacyAnimation();
+        }
+
+        final KaxxScoreboardRegistry registry = this.scoreboardHandler.getRegistry();
+
+        registry.sweep();
+
+        KaxxScoreboardEntry removed;
+
+        while ((removed = this.scoreboardHandler.pollRemovedEntry()) != null) {
+            removed.destroyScoreboard();
+        }
+
+        if (!this.pendingCalls.isEmpty()) {
+            if (this.scoreboardHandler.getAdapterTimeout() == 0 && this.scoreboardHandler.getAsyncAdapter() == null) {
+                this.pendingCalls.clear();
+            } else {
+                this.pendingCalls.keySet().removeIf(entry -> !registry.contains(entry.getUniqueId()));
+            }
+        }
+
+        final ScoreboardLineCache lineCache = this.scoreboardHandler.getLineCache();
+
+        updateGroups(tick, refreshRate, lineCache, metrics);
+
+        final KaxxScoreboardEntry[] entries = registry.snapshot();
+        final KaxxScoreboardAdapter adapter = this.scoreboardHandler.getAdapter();
+        final KaxxScoreboardAsyncAdapter asyncAdapter = adapter == null ? this.scoreboardHandler.getAsyncAdapter() : null;
+        final long generation = this.scoreboardHandler.getAdapterGeneration();
+
+        if (entries.length == 0) {
+            return;
+        }
+
+        final Executor executor = this.scoreboardHandler.getUpdateExecutor();
+        final int shards = executor == null ? 1
+                : Math.min(this.scoreboardHandler.getUpdateShards(), (entries.length + MIN_SHARD_SIZE - 1) / MIN_SHARD_SIZE);
+
+        if (shards <= 1) {
+            update(entries, 0, entries.length, adapter, asyncAdapter, generation, lineCache, metrics, tick, refreshRate);
+            return;
+        }
+
+        final int shardSize = (entries.length + shards - 1) / shards;
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[shards - 1];
+
+        for (int shard = 1; shard < shards; shard++) {
+            final int from = Math.min(entries.length, shard * shardSize);
+            final int to = Math.min(entries.length, from + shardSize);
 
-            if (player == null || scoreboard == null) {
+            futures[shard - 1] = CompletableFuture.runAsync(
+                    () -> update(entries, from, to, adapter, asyncAdapter, generation, lineCache, metrics, tick, refreshRate), executor);
+        }
+
+        update(entries, 0, shardSize, adapter, asyncAdapter, generation, lineCache, metrics, tick, refreshRate);
+
+        CompletableFuture.allOf(futures).join();
+    }
+
+    /**
+     * Moves the single animation of the handler to its next frame.
+     * The named animations do not need to be advanced, since their frames are computed from the clock of the handler.
+     */
+    @SuppressWarnings("deprecation")
+    private void advanceLegacyAnimation() {
+        final ScoreboardAnimation animation = this.scoreboardHandler.getScoreboardAnimation();
+
+        if (animation != null) {
+            animation.buildNext();
+        }
+    }
+
+    /**
+     * Synchronizes the members of the groups, then renders the board of each group once and sends it to its members.
+     * The leaves of every group are handled before any join, so that a player moving from a group to another one
+     * never has the new board cleared by the old one.
+     *
+     * @param tick        The current tick.
+     * @param refreshRate The refresh rate of the groups.
+     * @param lineCache   The cache of the translated and split lines, or null if there is none.
+     * @param metrics     The metrics to record, or null if they are disabled.
+     */
+    private void updateGroups(final long tick, final long refreshRate, final @Nullable ScoreboardLineCache lineCache,
+                              final @Nullable ScoreboardMetrics metrics) {
+        KaxxScoreboardGroup removed;
+
+        while ((removed = this.scoreboardHandler.pollRemovedGroup()) != null) {
+            removed.synchronizeLeaves();
+        }
+
+        final Collection<KaxxScoreboardGroup> groups = this.scoreboardHandler.getGroups();
+
+        if (groups.isEmpty()) {
+            return;
+        }
+
+        for (final KaxxScoreboardGroup group : groups) {
+            group.synchronizeLeaves();
+        }
+
+        final boolean due = tick % refreshRate == 0;
+
+        for (final KaxxScoreboardGroup group : groups) {
+            group.synchronizeJoins();
+
+            final KaxxScoreboardGroupAdapter adapter = group.getAdapter();
+
+            if (due && adapter != null) {
+                final KaxxScoreboard board = group.getBoard();
+
+                board.beginUpdate();
+
+                try {
+                    final long start = metrics != null ? System.nanoTime() : 0L;
+                    final String title = adapter.getTitle(group);
+                    final Collection<String> lines = adapter.getLines(group);
+
+                    if (metrics != null) {
+                        metrics.recordAdapter(System.nanoTime() - start);
+                    }
+
+                    render(board, title, lines, lineCache);
+                } finally {
+                    board.endUpdate();
+                }
+            }
+
+            group.broadcast();
+        }
+    }
+
+    /**
+     * Updates the scoreboards of a range of entries which are due on the given tick and are not paused.
+     * A scoreboard whose channel is saturated, or which used its bytes per second, is put off: it is not rendered,
+     * so that it sends the latest state in a single update once it can send again.
+     *
+     * @param entries      The entries to update.
+     * @param from         The index of the first entry to update, inclusive.
+     * @param to           The index of the last entry to update, exclusive.
+     * @param adapter      The adapter providing the title and lines, or null if there is none.
+     * @param asyncAdapter The asynchronous adapter providing the title and lines, or null if there is none.
+     * @param generation   The generation of the adapter of the handler.
+     * @param lineCache    The cache of the translated and split lines, or null if there is none.
+     * @param metrics      The metrics to record, or null if they are disabled.
+     * @param tick         The current tick.
+     * @param refreshRate  The refresh rate of the scoreboards which do not have their own.
+     */
+    private void update(final @Nonnull KaxxScoreboardEntry[] entries, final int from, final int to,
+                        final @Nullable KaxxScoreboardAdapter adapter,
+                        final @Nullable KaxxScoreboardAsyncAdapter asyncAdapter, final long generation,
+                        final @Nullable ScoreboardLineCache lineCache,
+                        final @Nullable ScoreboardMetrics metrics, final long tick, final long refreshRate) {
+        final long adapterTimeout = this.scoreboardHandler.getAdapterTimeout();
+        final Executor adapterExecutor = this.scoreboardHandler.getAdapterExecutor();
+        final long idleAfter = this.scoreboardHandler.getIdleAfter();
+        final long idleRefreshRate = this.scoreboardHandler.getIdleRefreshRate();
+        final long maxBytesPerSecond = this.scoreboardHandler.getMaxBytesPerSecond();
+
+        for (int i = from; i < to; i++) {
+            final KaxxScoreboardEntry entry = entries[i];
+
+            if (entry.getGroup() != null || entry.isPaused()
+                    || !entry.isDue(tick, refreshRate, idleAfter, idleRefreshRate)) {
+                continue;
+            }
+
+            if (entry.pollReset()) {
+                // A handle was attached or released: the lines of the previous source must not outlive it
+                try {
+                    reset(entry);
+                } catch (final RuntimeException e) {
+                    entry.requestReset();
+                    fail(entry, entry.getScoreboard(), e);
+                    continue;
+                }
+            }
+
+            final KaxxScoreboardHandle handle = entry.getHandle();
+
+            // A board with nothing to render is not put off, so that it neither counts as deferred nor uses a token
+            if (handle != null ? !handle.isDirty() : adapter == null && asyncAdapter == null) {
                 continue;
             }
 
-            final KaxxScoreboardAdapter adapter = scoreboardHandler.getAdapter();
+            final KaxxScoreboard scoreboard = entry.getScoreboard();
+            final ScoreboardTransport transport = scoreboard.getTransport();
+            final ByteRateLimiter byteLimiter = maxBytesPerSecond > 0 ? entry.getByteLimiter() : null;
+
+            if (!transport.isWritable() || (byteLimiter != null && !byteLimiter.tryAcquire(tick, maxBytesPerSecond))) {
+                if (metrics != null) {
+                    metrics.recordDeferredUpdate();
+                }
 
-            if (adapter == null) {
                 continue;
             }
 
-            scoreboard.setTitle(translate(adapter.getTitle(player)));
+            transport.setCountingBytes(byteLimiter != null);
+
+            final long sentBytes = byteLimiter != null ? transport.getSentBytes() : 0L;
+            final long start = metrics != null ? System.nanoTime() : 0L;
+
+            try {
+                if (handle != null) {
+                    scoreboard.beginUpdate();
+
+                    try {
+                        handle.apply(scoreboard);
+                    } finally {
+                        scoreboard.endUpdate();
+                    }
+                } else if (adapter != null && adapterTimeout > 0 && adapterExecutor != null) {
+                    final AdapterResult result =
+                            call(entry, adapter, generation, adapterTimeout, adapterExecutor, metrics);
+
+                    if (result == null) {
+                        continue;
+                    }
 
-            final List<String> lines = Lists.newArrayList(adapter.getLines(player));
+                    if (metrics != null) {
+                        metrics.recordAdapter(System.nanoTime() - start);
+                    }
 
-            Comparator<String> comparator = Comparator.comparingInt(lines::indexOf);
+                    render(scoreboard, result, lineCache);
+                } else if (asyncAdapter != null) {
+                    final AdapterResult result = call(entry, asyncAdapter, generation, adapterTimeout, metrics);
 
-            comparator = comparator.reversed();
+                    if (result == null) {
+                        continue;
+                    }
 
-            lines.sort(comparator);
+                    render(scoreboard, result, lineCache);
+                } else {
+                    scoreboard.beginUpdate();
 
-            for (int i = 0; i < lines.size(); i++) {
-                scoreboard.setLine(i, translate(lines.get(i)));
+                    try {
+                        if (adapter instanceof KaxxScoreboardTemplateAdapter) {
+                            render(scoreboard, entry.getPlayer(), (KaxxScoreboardTemplateAdapter) adapter);
+
+                            if (metrics != null) {
+                                metrics.recordAdapter(System.nanoTime() - start);
+                            }
+                        } else {
+                            final Player player = entry.getPlayer();
+                            final String title = adapter.getTitle(player);
+                            final Collection<String> lines = adapter.getLines(player);
+
+                            if (metrics != null) {
+                                metrics.recordAdapter(System.nanoTime() - start);
+                            }
+
+                            render(scoreboard, title, lines, lineCache);
+                        }
+                    } finally {
+                        scoreboard.endUpdate();
+                    }
+                }
+
+                if (byteLimiter != null && sentBytes >= 0) {
+                    byteLimiter.consume(transport.getSentBytes() - sentBytes);
+                }
+
+                entry.resetAdapterFailure();
+            } catch (final RuntimeException e) {
+                // A board which cannot be rendered keeps its last lines, without holding back the other boards
+                fail(entry, handle != null ? handle : adapter != null ? adapter : asyncAdapter, e);
+                continue;
             }
+
+            if (metrics != null) {
+                entry.setLastUpdateNanos(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Clears a scoreboard whose handle was attached or released, so that it is rendered from scratch by its new source.
+     * A handle which is still attached is rendered whole again, since its previous changes may have been cleared.
+     *
+     * @param entry The entry of the scoreboard.
+     */
+    private void reset(final @Nonnull KaxxScoreboardEntry entry) {
+        final KaxxScoreboard scoreboard = entry.getScoreboard();
+
+        if (scoreboard.isHasObjective()) {
+            scoreboard.destroy();
+        }
+
+        final KaxxScoreboardHandle handle = entry.getHandle();
+
+        if (handle != null) {
+            handle.invalidate();
+        }
+    }
+
+    /**
+     * Calls the adapter for a scoreboard on the adapter executor, waiting for it at most for the time budget.
+     * If the previous call exceeded its budget, it is not waited for again: its result is used once it completed,
+     * and no other call is made until then. If the call failed, the failure is reported and the scoreboard keeps its
+     * last lines.
+     *
+     * @param entry           The entry of the scoreboard.
+     * @param adapter         The adapter to call.
+     * @param generation      The generation of the adapter of the handler.
+     * @param adapterTimeout  The time budget of the call, in nanoseconds.
+     * @param adapterExecutor The executor running the call.
+     * @param metrics         The metrics to record, or null if they are disabled.
+     * @return the result of the call, or null if it did not complete within its budget or failed
+     */
+    private @Nullable AdapterResult call(final @Nonnull KaxxScoreboardEntry entry,
+                                         final @Nonnull KaxxScoreboardAdapter adapter, final long generation,
+                                         final long adapterTimeout,
+                                         final @Nonnull Executor adapterExecutor,
+                                         final @Nullable ScoreboardMetrics metrics) {
+        final PendingCall pending = this.pendingCalls.get(entry);
+
+        // The call already counted as an overrun when it missed its budget, however long it keeps running
+        if (pending != null && pending.generation() == generation && !pending.future().isDone()) {
+            return null;
+        }
+
+        if (pending == null || pending.generation() != generation) {
+            final Player player = entry.getPlayer();
+            final CompletableFuture<AdapterResult> call =
+                    CompletableFuture.supplyAsync(() -> AdapterResult.call(adapter, player), adapterExecutor);
+
+            this.pendingCalls.remove(entry);
+
+            try {
+                final AdapterResult result = call.get(adapterTimeout, TimeUnit.NANOSECONDS);
+
+                entry.resetAdapterOverruns();
+                return result;
+            } catch (final TimeoutException e) {
+                this.pendingCalls.put(entry, new PendingCall(generation, call, System.nanoTime()));
+                overrun(entry, adapter, adapterTimeout, metrics);
+                return null;
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (final ExecutionException e) {
+                fail(entry, adapter, e.getCause());
+                return null;
+            }
+        }
+
+        this.pendingCalls.remove(entry);
+
+        try {
+            return pending.future().join();
+        } catch (final CompletionException | CancellationException e) {
+            fail(entry, adapter, e.getCause() != null ? e.getCause() : e);
+            return null;
+        }
+    }
+
+    /**
+     * Polls the asynchronous adapter call of a scoreboard, then calls the adapter again if no call is in flight.
+     * The result of the previous call is returned once it completed, unless the adapter of the handler changed
+     * since it was made or it failed, in which case the scoreboard keeps its last lines.
+     * <p>
+     * A call still in flight past the adapter timeout of the handler, or past
+     * {@value KaxxScoreboardHandler#ASYNC_ADAPTER_TIMEOUT_MILLIS}ms if it has none, counts as an overrun and is
+     * abandoned, so that a future which never completes does not freeze the scoreboard. An adapter throwing or
+     * returning a null future fails like a call which completed exceptionally.
+     *
+     * @param entry          The entry of the scoreboard.
+     * @param adapter        The adapter to call.
+     * @param generation     The generation of the adapter of the handler.
+     * @param adapterTimeout The adapter timeout of the handler, in nanoseconds, or 0 if it has none.
+     * @param metrics        The metrics to record, or null if they are disabled.
+     * @return the result of the previous call, or null if there is none to render yet
+     */
+    private @Nullable AdapterResult call(final @Nonnull KaxxScoreboardEntry entry,
+                                         final @Nonnull KaxxScoreboardAsyncAdapter adapter, final long generation,
+                                         final long adapterTimeout, final @Nullable ScoreboardMetrics metrics) {
+        PendingCall pending = this.pendingCalls.get(entry);
+
+        if (pending != null && pending.generation() == generation && !pending.future().isDone()) {
+            final long budget = adapterTimeout > 0 ? adapterTimeout
+                    : TimeUnit.MILLISECONDS.toNanos(KaxxScoreboardHandler.ASYNC_ADAPTER_TIMEOUT_MILLIS);
+
+            if (System.nanoTime() - pending.startNanos() < budget) {
+                return null;
+            }
+
+            overrun(entry, adapter, budget, metrics);
+            pending = null;
+        }
+
+        AdapterResult result = null;
+
+        if (pending != null && pending.generation() == generation) {
+            try {
+                result = pending.future().join();
+                entry.resetAdapterOverruns();
+            } catch (final CompletionException | CancellationException e) {
+                fail(entry, adapter, e.getCause() != null ? e.getCause() : e);
+            }
+        }
+
+        final Player player = entry.getPlayer();
+        CompletableFuture<AdapterResult> call;
+
+        try {
+            final CompletableFuture<String> title = adapter.getTitle(player);
+            final CompletableFuture<? extends Collection<String>> lines = adapter.getLines(player);
+
+            Preconditions.checkState(title != null && lines != null, "The adapter returned a null future !");
+            call = title.thenCombine(lines, AdapterResult::of);
+        } catch (final RuntimeException e) {
+            // Reported on the next refresh of the scoreboard, like a call which completed exceptionally
+            call = CompletableFuture.failedFuture(e);
+        }
+
+        this.pendingCalls.put(entry, new PendingCall(generation, call, System.nanoTime()));
+
+        return result;
+    }
+
+    /**
+     * Reports an update of a scoreboard which failed, either in its adapter, its handle or while rendering it,
+     * unless its previous update already failed, so that a scoreboard failing on every refresh is only reported once
+     * until it is rendered again.
+     *
+     * @param entry  The entry of the scoreboard.
+     * @param source The adapter or handle providing the content of the scoreboard.
+     * @param cause  The failure of the update.
+     */
+    private void fail(final @Nonnull KaxxScoreboardEntry entry, final @Nonnull Object source,
+                      final @Nonnull Throwable cause) {
+        if (entry.recordAdapterFailure()) {
+            this.scoreboardHandler.getLogger().log(Level.WARNING, "Scoreboard update from "
+                    + source.getClass().getName() + " failed for " + entry.getPlayer().getName()
+                    + ", their scoreboard keeps its last lines", cause);
+        }
+    }
+
+    /**
+     * Records an adapter call which exceeded its time budget, and reports the scoreboard once it exceeded it on
+     * {@value KaxxScoreboardHandler#ADAPTER_OFFENDER_THRESHOLD} consecutive calls. A call is only counted once,
+     * however many refreshes it keeps running for.
+     *
+     * @param entry          The entry of the scoreboard.
+     * @param adapter        The adapter which exceeded its budget, synchronous or asynchronous.
+     * @param adapterTimeout The time budget of the call, in nanoseconds.
+     * @param metrics        The metrics to record, or null if they are disabled.
+     */
+    private void overrun(final @Nonnull KaxxScoreboardEntry entry, final @Nonnull Object adapter,
+                         final long adapterTimeout, final @Nullable ScoreboardMetrics metrics) {
+        if (metrics != null) {
+            metrics.recordAdapterTimeout();
+        }
+
+        if (entry.recordAdapterOverrun() == KaxxScoreboardHandler.ADAPTER_OFFENDER_THRESHOLD) {
+            this.scoreboardHandler.getLogger().warning("Scoreboard adapter " + adapter.getClass().getName()
+                    + " exceeded its budget of " + TimeUnit.NANOSECONDS.toMillis(adapterTimeout) + "ms "
+                    + KaxxScoreboardHandler.ADAPTER_OFFENDER_THRESHOLD + " times in a row for "
+                    + entry.getPlayer().getName() + ", their scoreboard keeps its last lines");
         }
     }
 
+    /**
+     * Renders the result of an adapter call on a scoreboard.
+     *
+     * @param scoreboard The scoreboard to render.
+     * @param result     The result of the adapter call.
+     * @param lineCache  The cache of the translated and split lines, or null if there is none.
+     */
+    private void render(final @Nonnull KaxxScoreboard scoreboard, final @Nonnull AdapterResult result,
+                        final @Nullable ScoreboardLineCache lineCache) {
+        scoreboard.beginUpdate();
+
+        try {
+            if (result.templates != null) {
+                render(scoreboard, result.title, result.templates, result.values);
+            } else {
+                render(scoreboard, result.title, result.lines, lineCache);
+            }
+        } finally {
+            scoreboard.endUpdate();
+        }
+    }
+
+    /**
+     * Renders a title and lines on a scoreboard, moving the lines which are already displayed on another index
+     * and removing the lines above them.
+     *
+     * @param scoreboard The scoreboard to render.
+     * @param title      The title, using '&amp;' as the alternate color code.
+     * @param rawLines   The lines from top to bottom, using '&amp;' as the alternate color code.
+     * @param lineCache  The cache of the translated and split lines, or null if there is none.
+     */
+    private void render(final @Nonnull KaxxScoreboard scoreboard, final @Nonnull String title,
+                        final @Nonnull Collection<String> rawLines, final @Nullable ScoreboardLineCache lineCache) {
+        scoreboard.setRawTitle(title);
+
+        final int size = rawLines.size();
+
+        Preconditions.checkArgument(size <= 15, "A scoreboard cannot display more than 15 lines !");
+
+        final ScoreboardLine[] split = LINES.get();
+
+        if (rawLines instanceof List<String> lines && rawLines instanceof RandomAccess) {
+            for (int j = 0; j < size; j++) {
+                split[size - 1 - j] = split(lines.get(j), lineCache);
+            }
+        } else {
+            int index = size;
+
+            for (final String line : rawLines) {
+                split[--index] = split(line, lineCache);
+            }
+        }
+
+        try {
+            scoreboard.setLines(split, size);
+        } finally {
+            Arrays.fill(split, 0, size, null);
+        }
+    }
+
+    /**
+     * Translates and splits a line.
+     *
+     * @param line      The line, using '&amp;' as the alternate color code.
+     * @param lineCache The cache of the translated and split lines, or null if there is none.
+     * @return the split line
+     */
+    private ScoreboardLine split(final @Nonnull String line, final @Nullable ScoreboardLineCache lineCache) {
+        if (lineCache != null) {
+            return lineCache.get(line);
+        }
+
+        return ScoreboardLine.split(translate(line));
+    }
+
+    /**
+     * Renders the title and the line templates provided by a template adapter on a scoreboard.
+     * The static key of a line is only sent when it changes, and only the values of its slots are rendered.
+     * The lines above the templates are removed.
+     *
+     * @param scoreboard The scoreboard to render.
+     * @param player     The player owning the scoreboard.
+     * @param adapter    The adapter providing the title and line templates.
+     */
+    private void render(final @Nonnull KaxxScoreboard scoreboard, final @Nonnull Player player,
+                        final @Nonnull KaxxScoreboardTemplateAdapter adapter) {
+        scoreboard.setRawTitle(adapter.getTitle(player));
+
+        final List<ScoreboardLineTemplate> templates = adapter.getTemplates(player);
+        final int size = Math.min(templates.size(), 15);
+
+        for (int j = 0; j < size; j++) {
+            final ScoreboardLineTemplate template = templates.get(j);
+            final int index = size - 1 - j;
+
+            scoreboard.createLine(index, template.getKey());
+
+            if (template.hasSlots()) {
+                scoreboard.setValue(index, template.render(player, adapter));
+            }
+        }
+
+        scoreboard.removeLinesFrom(size);
+    }
+
+    /**
+     * Renders a title and line templates whose values have already been rendered on a scoreboard.
+     * The lines above the templates are removed.
+     *
+     * @param scoreboard The scoreboard to render.
+     * @param title      The title, using '&amp;' as the alternate color code.
+     * @param templates  The line templates, from top to bottom.
+     * @param values     The rendered values of the templates, null for the templates without slots.
+     */
+    private void render(final @Nonnull KaxxScoreboard scoreboard, final @Nonnull String title,
+                        final @Nonnull List<ScoreboardLineTemplate> templates, final @Nonnull String[] values) {
+        scoreboard.setRawTitle(title);
+
+        final int size = Math.min(templates.size(), 15);
+
+        for (int j = 0; j < size; j++) {
+            final int index = size - 1 - j;
+
+            scoreboard.createLine(index, templates.get(j).getKey());
+
+            if (values[j] != null) {
+                scoreboard.setValue(index, values[j]);
+            }
+        }
+
+        scoreboard.removeLinesFrom(size);
+    }
 
     /**
      * Translates a given text by replacing color codes with the specified format.
+     * The text is returned as is if it does not contain any alternate color code.
      *
      * @param text The text to be translated.
      * @return The translated text with color codes replaced.
      */
     private String translate(final @Nonnull String text) {
-        return ChatColor.translateAlternateColorCodes('&', text);
+        return text.indexOf('&') < 0 ? text : ChatColor.translateAlternateColorCodes('&', text);
     }
-}
\ No newline at end of file
+}
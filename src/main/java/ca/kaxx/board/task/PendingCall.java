@@ -0,0 +1,15 @@
+package ca.kaxx.board.task;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An adapter call which has not been rendered yet, along with the generation of the adapter which was called.
+ * Its result is dropped if the adapter of the handler changed since the call was made.
+ *
+ * @param generation the generation of the adapter of the handler when the call was made.
+ * @param future     the future completed with the result of the call.
+ * @param startNanos the {@link System#nanoTime()} at which the call was made.
+ */
+record PendingCall(long generation, @Nonnull CompletableFuture<AdapterResult> future, long startNanos) {
+}
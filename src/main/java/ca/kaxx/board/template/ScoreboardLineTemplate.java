@@ -0,0 +1,220 @@
+package ca.kaxx.board.template;
+
+import ca.kaxx.board.KaxxScoreboard;
+import ca.kaxx.board.adapter.KaxxScoreboardTemplateAdapter;
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A scoreboard line compiled once from a template such as {@code &7Kills: &a{kills}}.
+ * <p>
+ * Everything before the first slot is the static key of the line. It is translated and split when the template is
+ * compiled, and sent once through {@link ca.kaxx.board.KaxxScoreboard#createLine(int, String)}. The rest of the
+ * template is the dynamic value, which is the only part rendered on each refresh and sent as the suffix of the line
+ * through {@link ca.kaxx.board.KaxxScoreboard#setValue(int, Object)}. The colors of the key carry over to the value.
+ * <p>
+ * Since the value is the suffix of the line, a rendered value longer than 16 characters is cut to its first 16
+ * characters. A template whose text following its slots cannot fit in the suffix is rejected when compiled.
+ * <p>
+ * A template without slots is a fully static line.
+ */
+@Getter
+public final class ScoreboardLineTemplate {
+
+    /**
+     * The maximum length of the rendered value, which is displayed as the suffix of the line.
+     */
+    private static final int MAX_VALUE_LENGTH = 16;
+
+    /**
+     * The template this line was compiled from.
+     */
+    private final String source;
+
+    /**
+     * The translated static key of the line.
+     */
+    private final String key;
+
+    /**
+     * The names of the slots of the template, in order.
+     */
+    private final String[] slots;
+
+    /**
+     * The translated text following each slot.
+     */
+    private final String[] literals;
+
+    /**
+     * Compiles a line template.
+     *
+     * @param source  the template.
+     * @param key     the translated static key.
+     * @param slots   the names of the slots.
+     * @param literals the translated text following each slot.
+     */
+    private ScoreboardLineTemplate(final @Nonnull String source, final @Nonnull String key,
+                                   final @Nonnull String[] slots, final @Nonnull String[] literals) {
+        this.source = source;
+        this.key = key;
+        this.slots = slots;
+        this.literals = literals;
+    }
+
+    /**
+     * Compiles a line template. Slots are written {@code {name}}, and alternate color codes using '&amp;' are
+     * translated.
+     *
+     * @param template the template to compile. Cannot be null.
+     * @return the compiled template
+     * @throws IllegalArgumentException if the static key is longer than
+     *                                  {@link KaxxScoreboard#getMaxKeyLength(String)} once translated, or the text
+     *                                  following its slots contains more than 16 characters
+     */
+    public static ScoreboardLineTemplate compile(final @Nonnull String template) {
+        final String translated = ChatColor.translateAlternateColorCodes('&', template);
+
+        final List<String> slots = new ArrayList<>();
+        final List<String> literals = new ArrayList<>();
+
+        String key = null;
+        int literalStart = 0;
+        int i = 0;
+
+        while (i < translated.length()) {
+            final int end = translated.charAt(i) == '{' ? translated.indexOf('}', i + 1) : -1;
+
+            if (end <= i + 1 || !isSlotName(translated, i + 1, end)) {
+                i++;
+                continue;
+            }
+
+            final String literal = translated.substring(literalStart, i);
+
+            if (key == null) {
+                key = literal;
+            } else {
+                literals.add(literal);
+            }
+
+            slots.add(translated.substring(i + 1, end));
+
+            literalStart = i = end + 1;
+        }
+
+        if (key == null) {
+            key = translated;
+        } else {
+            literals.add(translated.substring(literalStart));
+        }
+
+        final int maxKeyLength = KaxxScoreboard.getMaxKeyLength(key);
+
+        Preconditions.checkArgument(key.length() <= maxKeyLength,
+                "The static key of template '%s' must contain 0 to %s characters !", template, maxKeyLength);
+
+        int literalsLength = 0;
+
+        for (final String literal : literals) {
+            literalsLength += literal.length();
+        }
+
+        Preconditions.checkArgument(literalsLength <= MAX_VALUE_LENGTH,
+                "The text following the slots of template '%s' must contain 0 to 16 characters !", template);
+
+        return new ScoreboardLineTemplate(template, key, slots.toArray(new String[0]), literals.toArray(new String[0]));
+    }
+
+    /**
+     * Checks if a part of a string is a valid slot name, made of letters, digits, '_', '-' or '.'.
+     *
+     * @param text  the text containing the slot name.
+     * @param start the index of the first character of the slot name, inclusive.
+     * @param end   the index of the last character of the slot name, exclusive.
+     * @return true if the name is valid, false otherwise
+     */
+    private static boolean isSlotName(final @Nonnull String text, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            final char c = text.charAt(i);
+
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '-' && c != '.') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks if the template has dynamic slots.
+     *
+     * @return true if the template has slots, false if it is a fully static line
+     */
+    public boolean hasSlots() {
+        return this.slots.length > 0;
+    }
+
+    /**
+     * Renders the dynamic value of the line for a player.
+     * Values longer than 16 characters are cut to their first 16 characters, since they are displayed as the suffix
+     * of the line.
+     *
+     * @param player  the player the line is rendered for. Cannot be null.
+     * @param adapter the adapter providing the values of the slots. Cannot be null.
+     * @return the rendered value, or an empty string if the template has no slots
+     */
+    public String render(final @Nonnull Player player, final @Nonnull KaxxScoreboardTemplateAdapter adapter) {
+        final String[] slots = this.slots;
+
+        if (slots.length == 0) {
+            return "";
+        }
+
+        if (slots.length == 1 && this.literals[0].isEmpty()) {
+            return fit(String.valueOf(adapter.getValue(player, slots[0])));
+        }
+
+        final StringBuilder builder = new StringBuilder(MAX_VALUE_LENGTH);
+
+        for (int i = 0; i < slots.length; i++) {
+            builder.append(adapter.getValue(player, slots[i])).append(this.literals[i]);
+        }
+
+        return fit(builder.toString());
+    }
+
+    /**
+     * Renders the whole line for a player, key included.
+     *
+     * @param player  the player the line is rendered for. Cannot be null.
+     * @param adapter the adapter providing the values of the slots. Cannot be null.
+     * @return the rendered line
+     */
+    public String renderLine(final @Nonnull Player player, final @Nonnull KaxxScoreboardTemplateAdapter adapter) {
+        return this.key + render(player, adapter);
+    }
+
+    /**
+     * Cuts a value to the maximum suffix length, without leaving a dangling color character.
+     *
+     * @param value the value to cut.
+     * @return the value, cut if needed
+     */
+    private static String fit(final @Nonnull String value) {
+        if (value.length() <= MAX_VALUE_LENGTH) {
+            return value;
+        }
+
+        final int end = value.charAt(MAX_VALUE_LENGTH - 1) == ChatColor.COLOR_CHAR ? MAX_VALUE_LENGTH - 1 : MAX_VALUE_LENGTH;
+
+        return value.substring(0, end);
+    }
+
+}
@@ -0,0 +1,156 @@
+package ca.kaxx.board.transport;
+
+import ca.kaxx.board.metrics.ScoreboardMetrics;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A transport keeping every change in memory until it is {@link #drain() drained}.
+ * <p>
+ * It backs the board of a {@link ca.kaxx.board.KaxxScoreboardGroup}, whose changes are then sent to every member,
+ * and lets a board be rendered without a server, for example in benchmarks.
+ */
+public final class InMemoryScoreboardTransport implements ScoreboardTransport {
+
+    /**
+     * An empty array of operations.
+     */
+    private static final ScoreboardOperation[] EMPTY = new ScoreboardOperation[0];
+
+    /**
+     * The operations recorded since the last drain.
+     */
+    private final List<ScoreboardOperation> operations;
+
+    /**
+     * Creates an empty transport.
+     */
+    public InMemoryScoreboardTransport() {
+        this.operations = new ArrayList<>(32);
+    }
+
+    /**
+     * Does nothing, since the operations are kept until they are drained.
+     */
+    @Override
+    public void begin() {
+    }
+
+    /**
+     * Does nothing, since the operations are kept until they are drained.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * An in-memory transport is always connected.
+     *
+     * @return true
+     */
+    @Override
+    public boolean isConnected() {
+        return true;
+    }
+
+    /**
+     * Does nothing, since the operations are only recorded by the metrics once they are sent to a player.
+     *
+     * @param metrics ignored
+     */
+    @Override
+    public void setMetrics(final @Nullable ScoreboardMetrics metrics) {
+    }
+
+    @Override
+    public void createObjective(final @Nonnull String title) {
+        record(ScoreboardOperation.Type.CREATE_OBJECTIVE, -1, title, null, null, null);
+    }
+
+    @Override
+    public void updateObjective(final @Nonnull String title) {
+        record(ScoreboardOperation.Type.UPDATE_OBJECTIVE, -1, title, null, null, null);
+    }
+
+    @Override
+    public void removeObjective() {
+        record(ScoreboardOperation.Type.REMOVE_OBJECTIVE, -1, null, null, null, null);
+    }
+
+    @Override
+    public void displayObjective(final @Nonnull ScoreboardDisplaySlot slot) {
+        record(ScoreboardOperation.Type.DISPLAY_OBJECTIVE, -1, null, null, null, slot);
+    }
+
+    @Override
+    public void setScore(final int score, final @Nonnull String entry) {
+        record(ScoreboardOperation.Type.SET_SCORE, score, null, null, entry, null);
+    }
+
+    @Override
+    public void removeScore(final int index, final @Nonnull String entry) {
+        record(ScoreboardOperation.Type.REMOVE_SCORE, index, null, null, entry, null);
+    }
+
+    @Override
+    public void createTeam(final int index, final @Nonnull String prefix, final @Nonnull String suffix,
+                           final @Nonnull String entry) {
+        record(ScoreboardOperation.Type.CREATE_TEAM, index, prefix, suffix, entry, null);
+    }
+
+    @Override
+    public void updateTeam(final int index, final @Nonnull String prefix, final @Nonnull String suffix) {
+        record(ScoreboardOperation.Type.UPDATE_TEAM, index, prefix, suffix, null, null);
+    }
+
+    @Override
+    public void removeTeam(final int index) {
+        record(ScoreboardOperation.Type.REMOVE_TEAM, index, null, null, null, null);
+    }
+
+    /**
+     * Returns the operations recorded since the last drain.
+     *
+     * @return an unmodifiable view of the operations, in order
+     */
+    public List<ScoreboardOperation> getOperations() {
+        return Collections.unmodifiableList(this.operations);
+    }
+
+    /**
+     * Removes and returns the operations recorded since the last drain.
+     *
+     * @return the removed operations, in order
+     */
+    public ScoreboardOperation[] drain() {
+        if (this.operations.isEmpty()) {
+            return EMPTY;
+        }
+
+        final ScoreboardOperation[] operations = this.operations.toArray(EMPTY);
+        this.operations.clear();
+
+        return operations;
+    }
+
+    /**
+     * Records an operation.
+     *
+     * @param type   the kind of change.
+     * @param index  the index of the line, or -1.
+     * @param text   the title or prefix, or null.
+     * @param suffix the suffix, or null.
+     * @param entry  the score entry, or null.
+     * @param slot   the display slot, or null.
+     */
+    private void record(final @Nonnull ScoreboardOperation.Type type, final int index, final @Nullable String text,
+                        final @Nullable String suffix, final @Nullable String entry,
+                        final @Nullable ScoreboardDisplaySlot slot) {
+        this.operations.add(new ScoreboardOperation(type, index, text, suffix, entry, slot));
+    }
+
+}
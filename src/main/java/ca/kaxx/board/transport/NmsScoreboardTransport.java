@@ -0,0 +1,271 @@
+package ca.kaxx.board.transport;
+
+import ca.kaxx.board.metrics.ScoreboardMetrics;
+import ca.kaxx.board.network.ScoreboardPacketBatch;
+import ca.kaxx.board.packets.ScoreboardAction;
+import ca.kaxx.board.packets.ScoreboardDisplayObjectivePacket;
+import ca.kaxx.board.packets.ScoreboardPacketFactory;
+import ca.kaxx.board.packets.ScoreboardPacketTemplates;
+import io.netty.channel.Channel;
+import lombok.Getter;
+import net.minecraft.server.v1_8_R3.IScoreboardCriteria;
+import net.minecraft.server.v1_8_R3.NetworkManager;
+import net.minecraft.server.v1_8_R3.Packet;
+import net.minecraft.server.v1_8_R3.PacketPlayOutScoreboardScore;
+import net.minecraft.server.v1_8_R3.PlayerConnection;
+import org.bukkit.craftbukkit.v1_8_R3.entity.CraftPlayer;
+import org.bukkit.entity.Player;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A transport sending NMS packets through the connection of the player, batched by a {@link ScoreboardPacketBatch}.
+ * <p>
+ * The packets which are the same for every player come from {@link ScoreboardPacketTemplates}, the others are built
+ * by {@link ScoreboardPacketFactory}.
+ */
+@Getter
+public final class NmsScoreboardTransport implements ScoreboardTransport {
+
+    /**
+     * The connection of the player receiving the packets.
+     */
+    private final PlayerConnection connection;
+
+    /**
+     * Collects the packets of an update so that they are written to the player's channel with a single flush.
+     */
+    private final ScoreboardPacketBatch batch;
+
+    /**
+     * Creates a transport sending its packets through the specified connection.
+     *
+     * @param connection The connection of the player. Cannot be null.
+     */
+    public NmsScoreboardTransport(final @Nonnull PlayerConnection connection) {
+        this.connection = connection;
+        this.batch = new ScoreboardPacketBatch(connection);
+    }
+
+    /**
+     * Creates a transport sending its packets through the connection of a player.
+     *
+     * @param player The player. Cannot be null.
+     * @return the created transport
+     */
+    public static NmsScoreboardTransport of(final @Nonnull Player player) {
+        return new NmsScoreboardTransport(((CraftPlayer) player).getHandle().playerConnection);
+    }
+
+    @Override
+    public void begin() {
+        this.batch.begin();
+    }
+
+    @Override
+    public void flush() {
+        this.batch.flush();
+    }
+
+    /**
+     * Checks if the player is still connected.
+     * Connections that are not backed by a network channel are always considered connected.
+     *
+     * @return true if the player's channel is still open, false otherwise
+     */
+    @Override
+    public boolean isConnected() {
+        final NetworkManager networkManager = this.connection.networkManager;
+
+        if (networkManager == null) {
+            return true;
+        }
+
+        final Channel channel = networkManager.channel;
+
+        return channel == null || channel.isOpen();
+    }
+
+    @Override
+    public boolean isWritable() {
+        return this.batch.isWritable();
+    }
+
+    /**
+     * Returns the bytes of the packets sent through this transport so far, before compression and framing.
+     *
+     * @return the number of bytes, or -1 if the packet sizes cannot be computed on this server
+     */
+    @Override
+    public long getSentBytes() {
+        return ScoreboardPacketFactory.isDirect() ? this.batch.getSentBytes() : -1;
+    }
+
+    @Override
+    public void setCountingBytes(final boolean countingBytes) {
+        this.batch.setCountingBytes(countingBytes);
+    }
+
+    @Override
+    public void setMetrics(final @Nullable ScoreboardMetrics metrics) {
+        this.batch.setMetrics(metrics);
+    }
+
+    @Override
+    public void createObjective(final @Nonnull String title) {
+        this.batch.add(objective(ScoreboardAction.CREATE, title));
+    }
+
+    @Override
+    public void updateObjective(final @Nonnull String title) {
+        this.batch.add(objective(ScoreboardAction.UPDATE, title));
+    }
+
+    @Override
+    public void removeObjective() {
+        this.batch.add(ScoreboardPacketTemplates.objectiveDelete());
+    }
+
+    @Override
+    public void displayObjective(final @Nonnull ScoreboardDisplaySlot slot) {
+        this.batch.add(ScoreboardPacketTemplates.display(typeOf(slot)));
+    }
+
+    @Override
+    public void setScore(final int score, final @Nonnull String entry) {
+        this.batch.add(score(score, entry, PacketPlayOutScoreboardScore.EnumScoreboardAction.CHANGE));
+    }
+
+    @Override
+    public void removeScore(final int index, final @Nonnull String entry) {
+        this.batch.add(scoreRemove(index, entry));
+    }
+
+    @Override
+    public void createTeam(final int index, final @Nonnull String prefix, final @Nonnull String suffix,
+                           final @Nonnull String entry) {
+        this.batch.add(team(index, ScoreboardAction.CREATE, prefix, suffix, entry));
+    }
+
+    @Override
+    public void updateTeam(final int index, final @Nonnull String prefix, final @Nonnull String suffix) {
+        this.batch.add(team(index, ScoreboardAction.UPDATE, prefix, suffix, ScoreboardNames.entry(index)));
+    }
+
+    @Override
+    public void removeTeam(final int index) {
+        this.batch.add(ScoreboardPacketTemplates.teamDelete(index));
+    }
+
+    /**
+     * Sends an operation, building its packet only for the first player receiving it.
+     *
+     * @param operation the operation to send. Cannot be null.
+     */
+    @Override
+    public void send(final @Nonnull ScoreboardOperation operation) {
+        Packet<?> packet = (Packet<?>) operation.packet;
+
+        if (packet == null) {
+            packet = build(operation);
+            operation.packet = packet;
+        }
+
+        this.batch.add(packet);
+    }
+
+    /**
+     * Builds the packet of an operation.
+     *
+     * @param operation the operation. Cannot be null.
+     * @return the packet of the operation
+     */
+    private static Packet<?> build(final @Nonnull ScoreboardOperation operation) {
+        final int index = operation.getIndex();
+
+        return switch (operation.getType()) {
+            case CREATE_OBJECTIVE -> objective(ScoreboardAction.CREATE, operation.getText());
+            case UPDATE_OBJECTIVE -> objective(ScoreboardAction.UPDATE, operation.getText());
+            case REMOVE_OBJECTIVE -> ScoreboardPacketTemplates.objectiveDelete();
+            case DISPLAY_OBJECTIVE -> ScoreboardPacketTemplates.display(typeOf(operation.getSlot()));
+            case SET_SCORE -> score(index, operation.getEntry(), PacketPlayOutScoreboardScore.EnumScoreboardAction.CHANGE);
+            case REMOVE_SCORE -> scoreRemove(index, operation.getEntry());
+            case CREATE_TEAM -> team(index, ScoreboardAction.CREATE, operation.getText(), operation.getSuffix(),
+                    operation.getEntry());
+            case UPDATE_TEAM -> team(index, ScoreboardAction.UPDATE, operation.getText(), operation.getSuffix(),
+                    ScoreboardNames.entry(index));
+            case REMOVE_TEAM -> ScoreboardPacketTemplates.teamDelete(index);
+        };
+    }
+
+    /**
+     * Builds an objective packet.
+     *
+     * @param action The action to perform on the objective.
+     * @param title  The title of the objective.
+     * @return the built packet
+     */
+    private static Packet<?> objective(final @Nonnull ScoreboardAction action, final @Nonnull String title) {
+        return ScoreboardPacketFactory.objective(ScoreboardNames.OBJECTIVE_NAME, action, title,
+                IScoreboardCriteria.EnumScoreboardHealthDisplay.INTEGER);
+    }
+
+    /**
+     * Builds a score packet.
+     *
+     * @param index  The index of the line, used as the score.
+     * @param entry  The score entry of the line.
+     * @param action The action to perform on the score.
+     * @return the built packet
+     */
+    private static Packet<?> score(final int index, final @Nonnull String entry,
+                                   final @Nonnull PacketPlayOutScoreboardScore.EnumScoreboardAction action) {
+        return ScoreboardPacketFactory.score(entry, ScoreboardNames.OBJECTIVE_NAME, index, action);
+    }
+
+    /**
+     * Returns the display type of the packets for a display slot.
+     *
+     * @param slot The display slot.
+     * @return the display type of the packets
+     */
+    private static ScoreboardDisplayObjectivePacket.Type typeOf(final @Nonnull ScoreboardDisplaySlot slot) {
+        return switch (slot) {
+            case TAB_LIST -> ScoreboardDisplayObjectivePacket.Type.TAB_LIST;
+            case SCORE -> ScoreboardDisplayObjectivePacket.Type.SCORE;
+            case PLAYER -> ScoreboardDisplayObjectivePacket.Type.PLAYER;
+        };
+    }
+
+    /**
+     * Returns the packet removing the score of an entry, shared if the entry is the default entry of its line.
+     *
+     * @param index The index of the line.
+     * @param entry The score entry of the line.
+     * @return the score REMOVE packet
+     */
+    private static Packet<?> scoreRemove(final int index, final @Nonnull String entry) {
+        if (entry.equals(ScoreboardNames.entry(index))) {
+            return ScoreboardPacketTemplates.scoreRemove(index);
+        }
+
+        return score(index, entry, PacketPlayOutScoreboardScore.EnumScoreboardAction.REMOVE);
+    }
+
+    /**
+     * Builds a team packet.
+     *
+     * @param index  The index of the line.
+     * @param action The action to perform on the team.
+     * @param prefix The prefix of the line.
+     * @param suffix The suffix of the line.
+     * @param entry  The score entry of the line, only sent on {@link ScoreboardAction#CREATE}.
+     * @return the built packet
+     */
+    private static Packet<?> team(final int index, final @Nonnull ScoreboardAction action, final @Nonnull String prefix,
+                                  final @Nonnull String suffix, final @Nonnull String entry) {
+        return ScoreboardPacketFactory.team(ScoreboardNames.teamName(index), action, prefix, suffix, entry);
+    }
+
+}
@@ -0,0 +1,640 @@
+package ca.kaxx.board.transport;
+
+import ca.kaxx.board.metrics.ScoreboardMetrics;
+import ca.kaxx.board.metrics.ScoreboardPacketType;
+import ca.kaxx.board.packets.ScoreboardAction;
+import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+import lombok.Getter;
+import lombok.Setter;
+import net.minecraft.server.v1_8_R3.NetworkManager;
+import org.bukkit.craftbukkit.v1_8_R3.entity.CraftPlayer;
+import org.bukkit.entity.Player;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A transport writing encoded scoreboard frames straight into the Netty channel of the player, without building
+ * any packet object.
+ * <p>
+ * A frame holds the packet id and the fields of a 1.8 play packet, exactly as the packet encoder of the server would
+ * have written them. The channel pipeline still compresses, frames and encrypts it, since the packet encoder lets
+ * buffers through untouched. The frames which are the same for every player are encoded once and shared.
+ * <p>
+ * Proxies or plugins rewriting packets in the pipeline only see these frames as raw buffers.
+ */
+public final class RawScoreboardTransport implements ScoreboardTransport {
+
+    /**
+     * The id of the objective packet.
+     */
+    private static final int OBJECTIVE_ID = 0x3B;
+
+    /**
+     * The id of the score packet.
+     */
+    private static final int SCORE_ID = 0x3C;
+
+    /**
+     * The id of the display objective packet.
+     */
+    private static final int DISPLAY_ID = 0x3D;
+
+    /**
+     * The id of the team packet.
+     */
+    private static final int TEAM_ID = 0x3E;
+
+    /**
+     * The type of the objective, its health display.
+     */
+    private static final String OBJECTIVE_TYPE = "integer";
+
+    /**
+     * The name tag visibility of the teams.
+     */
+    private static final String TEAM_VISIBILITY = "never";
+
+    /**
+     * The color of the teams, the index of the RESET format.
+     */
+    private static final int TEAM_COLOR = -1;
+
+    /**
+     * The score action changing a score.
+     */
+    private static final int SCORE_CHANGE = 0;
+
+    /**
+     * The score action removing a score.
+     */
+    private static final int SCORE_REMOVE = 1;
+
+    /**
+     * An empty array of frames.
+     */
+    private static final ByteBuf[] EMPTY = new ByteBuf[0];
+
+    /**
+     * The team DELETE frame of each line, indexed by line index.
+     */
+    private static final ByteBuf[] TEAM_DELETES = new ByteBuf[ScoreboardNames.LINES];
+
+    /**
+     * The score REMOVE frame of the default entry of each line, indexed by line index.
+     */
+    private static final ByteBuf[] SCORE_REMOVES = new ByteBuf[ScoreboardNames.LINES];
+
+    /**
+     * The display objective frame of each display slot, indexed by ordinal.
+     */
+    private static final ByteBuf[] DISPLAYS;
+
+    /**
+     * The objective DELETE frame.
+     */
+    private static final ByteBuf OBJECTIVE_DELETE;
+
+    static {
+        for (int i = 0; i < ScoreboardNames.LINES; i++) {
+            TEAM_DELETES[i] = shared(team(Unpooled.buffer(), i, ScoreboardAction.DELETE, "", "", ""));
+            SCORE_REMOVES[i] = shared(score(Unpooled.buffer(), i, ScoreboardNames.entry(i), SCORE_REMOVE));
+        }
+
+        final ScoreboardDisplaySlot[] slots = ScoreboardDisplaySlot.values();
+
+        DISPLAYS = new ByteBuf[slots.length];
+
+        for (final ScoreboardDisplaySlot slot : slots) {
+            DISPLAYS[slot.ordinal()] = shared(display(Unpooled.buffer(), slot));
+        }
+
+        OBJECTIVE_DELETE = shared(objective(Unpooled.buffer(), ScoreboardAction.DELETE, ""));
+    }
+
+    /**
+     * The channel of the player receiving the frames.
+     */
+    @Getter
+    private final Channel channel;
+
+    /**
+     * The frames waiting for the batch to be flushed.
+     */
+    private final List<ByteBuf> frames;
+
+    /**
+     * The number of nested batches currently open.
+     */
+    private int depth;
+
+    /**
+     * The bytes of the frames sent through this transport so far.
+     */
+    @Getter
+    private volatile long sentBytes;
+
+    /**
+     * The metrics recording the frames of this transport, or null if they are not recorded.
+     */
+    @Setter
+    private volatile ScoreboardMetrics metrics;
+
+    /**
+     * Creates a transport writing to the specified channel.
+     *
+     * @param channel The channel of the player, in the play state. Cannot be null.
+     */
+    public RawScoreboardTransport(final @Nonnull Channel channel) {
+        this.channel = channel;
+        this.frames = new ArrayList<>(32);
+    }
+
+    /**
+     * Creates a transport writing to the channel of a player.
+     *
+     * @param player The player. Cannot be null.
+     * @return the created transport
+     * @throws IllegalArgumentException if the player does not have a network channel
+     */
+    public static RawScoreboardTransport of(final @Nonnull Player player) {
+        final NetworkManager networkManager = ((CraftPlayer) player).getHandle().playerConnection.networkManager;
+        final Channel channel = networkManager == null ? null : networkManager.channel;
+
+        Preconditions.checkArgument(channel != null, "Player %s does not have a network channel !", player.getName());
+
+        return new RawScoreboardTransport(channel);
+    }
+
+    @Override
+    public void begin() {
+        this.depth++;
+    }
+
+    /**
+     * Ends a batch. When the outermost batch ends, every pending frame is written to the channel with void promises
+     * and flushed once on the channel's event loop.
+     */
+    @Override
+    public void flush() {
+        if (this.depth == 0 || --this.depth > 0 || this.frames.isEmpty()) {
+            return;
+        }
+
+        final ByteBuf[] pending = this.frames.toArray(EMPTY);
+        this.frames.clear();
+
+        if (!this.channel.isOpen()) {
+            for (final ByteBuf frame : pending) {
+                frame.release();
+            }
+            return;
+        }
+
+        final EventLoop eventLoop = this.channel.eventLoop();
+
+        if (eventLoop.inEventLoop()) {
+            write(this.channel, pending);
+        } else {
+            eventLoop.execute(() -> write(this.channel, pending));
+        }
+    }
+
+    @Override
+    public boolean isConnected() {
+        return this.channel.isOpen();
+    }
+
+    @Override
+    public boolean isWritable() {
+        return this.channel.isWritable();
+    }
+
+    @Override
+    public void createObjective(final @Nonnull String title) {
+        add(ScoreboardPacketType.OBJECTIVE, objective(alloc().buffer(), ScoreboardAction.CREATE, title));
+    }
+
+    @Override
+    public void updateObjective(final @Nonnull String title) {
+        add(ScoreboardPacketType.OBJECTIVE, objective(alloc().buffer(), ScoreboardAction.UPDATE, title));
+    }
+
+    @Override
+    public void removeObjective() {
+        add(ScoreboardPacketType.OBJECTIVE, OBJECTIVE_DELETE.duplicate());
+    }
+
+    @Override
+    public void displayObjective(final @Nonnull ScoreboardDisplaySlot slot) {
+        add(ScoreboardPacketType.DISPLAY, DISPLAYS[slot.ordinal()].duplicate());
+    }
+
+    @Override
+    public void setScore(final int score, final @Nonnull String entry) {
+        add(ScoreboardPacketType.SCORE, score(alloc(), score, entry, SCORE_CHANGE));
+    }
+
+    @Override
+    public void removeScore(final int index, final @Nonnull String entry) {
+        add(ScoreboardPacketType.SCORE, scoreRemove(alloc(), index, entry));
+    }
+
+    @Override
+    public void createTeam(final int index, final @Nonnull String prefix, final @Nonnull String suffix,
+                           final @Nonnull String entry) {
+        add(ScoreboardPacketType.TEAM, team(alloc(), index, ScoreboardAction.CREATE, prefix, suffix, entry));
+    }
+
+    @Override
+    public void updateTeam(final int index, final @Nonnull String prefix, final @Nonnull String suffix) {
+        add(ScoreboardPacketType.TEAM, team(alloc(), index, ScoreboardAction.UPDATE, prefix, suffix, ""));
+    }
+
+    @Override
+    public void removeTeam(final int index) {
+        add(ScoreboardPacketType.TEAM, TEAM_DELETES[index].duplicate());
+    }
+
+    /**
+     * Sends an operation, encoding its frame only for the first player receiving it.
+     * The frame is kept on the operation until it is released.
+     *
+     * @param operation the operation to send. Cannot be null.
+     */
+    @Override
+    public void send(final @Nonnull ScoreboardOperation operation) {
+        ByteBuf frame = operation.frame;
+
+        if (frame == null) {
+            frame = encode(alloc(), operation);
+            operation.frame = frame;
+        }
+
+        add(typeOf(operation.getType()), frame.duplicate().retain());
+    }
+
+    /**
+     * Adds a frame to the batch, or writes it right away if no batch is open.
+     *
+     * @param type  The type of the packet held by the frame, for the metrics.
+     * @param frame The frame to write.
+     */
+    private void add(final @Nonnull ScoreboardPacketType type, final @Nonnull ByteBuf frame) {
+        final ScoreboardMetrics metrics = this.metrics;
+        final int size = frame.readableBytes();
+
+        this.sentBytes += size;
+
+        if (metrics != null && metrics.isEnabled()) {
+            metrics.recordPacket(type, size);
+        }
+
+        if (this.depth == 0) {
+            this.channel.writeAndFlush(frame, this.channel.voidPromise());
+            return;
+        }
+
+        this.frames.add(frame);
+    }
+
+    /**
+     * Returns the allocator of the channel.
+     *
+     * @return the allocator used for the frames of this player
+     */
+    private ByteBufAllocator alloc() {
+        return this.channel.alloc();
+    }
+
+    /**
+     * Writes the given frames to the channel and flushes it once.
+     *
+     * @param channel The channel to write to.
+     * @param frames  The frames to write, in order.
+     */
+    private static void write(final @Nonnull Channel channel, final @Nonnull ByteBuf[] frames) {
+        for (final ByteBuf frame : frames) {
+            channel.write(frame, channel.voidPromise());
+        }
+
+        channel.flush();
+    }
+
+    /**
+     * Encodes the frame of an operation.
+     *
+     * @param allocator The allocator of the frame.
+     * @param operation The operation to encode.
+     * @return the frame of the operation
+     */
+    private static ByteBuf encode(final @Nonnull ByteBufAllocator allocator, final @Nonnull ScoreboardOperation operation) {
+        final int index = operation.getIndex();
+
+        return switch (operation.getType()) {
+            case CREATE_OBJECTIVE -> objective(allocator.buffer(), ScoreboardAction.CREATE, operation.getText());
+            case UPDATE_OBJECTIVE -> objective(allocator.buffer(), ScoreboardAction.UPDATE, operation.getText());
+            case REMOVE_OBJECTIVE -> OBJECTIVE_DELETE.duplicate();
+            case DISPLAY_OBJECTIVE -> DISPLAYS[operation.getSlot().ordinal()].duplicate();
+            case SET_SCORE -> score(allocator, index, operation.getEntry(), SCORE_CHANGE);
+            case REMOVE_SCORE -> scoreRemove(allocator, index, operation.getEntry());
+            case CREATE_TEAM -> team(allocator, index, ScoreboardAction.CREATE, operation.getText(),
+                    operation.getSuffix(), operation.getEntry());
+            case UPDATE_TEAM -> team(allocator, index, ScoreboardAction.UPDATE, operation.getText(),
+                    operation.getSuffix(), "");
+            case REMOVE_TEAM -> TEAM_DELETES[index].duplicate();
+        };
+    }
+
+    /**
+     * Returns the type of the packet encoded for an operation.
+     *
+     * @param type The type of the operation.
+     * @return the type of the packet, for the metrics
+     */
+    private static ScoreboardPacketType typeOf(final @Nonnull ScoreboardOperation.Type type) {
+        return switch (type) {
+            case CREATE_OBJECTIVE, UPDATE_OBJECTIVE, REMOVE_OBJECTIVE -> ScoreboardPacketType.OBJECTIVE;
+            case DISPLAY_OBJECTIVE -> ScoreboardPacketType.DISPLAY;
+            case SET_SCORE, REMOVE_SCORE -> ScoreboardPacketType.SCORE;
+            case CREATE_TEAM, UPDATE_TEAM, REMOVE_TEAM -> ScoreboardPacketType.TEAM;
+        };
+    }
+
+    /**
+     * Makes a frame shareable by every player: it is never released, and is written through duplicates
+     * so that each write has its own reader index.
+     *
+     * @param frame The frame to share.
+     * @return the shared frame
+     */
+    private static ByteBuf shared(final @Nonnull ByteBuf frame) {
+        return Unpooled.unreleasableBuffer(frame);
+    }
+
+    /**
+     * Encodes an objective frame.
+     *
+     * @param buffer The buffer to encode into.
+     * @param action The action to perform on the objective.
+     * @param title  The title of the objective, ignored on {@link ScoreboardAction#DELETE}.
+     * @return the buffer
+     */
+    private static ByteBuf objective(final @Nonnull ByteBuf buffer, final @Nonnull ScoreboardAction action,
+                                     final @Nonnull String title) {
+        writeVarInt(buffer, OBJECTIVE_ID);
+        writeString(buffer, ScoreboardNames.OBJECTIVE_NAME);
+        buffer.writeByte(action.ordinal());
+
+        if (action != ScoreboardAction.DELETE) {
+            writeString(buffer, title);
+            writeString(buffer, OBJECTIVE_TYPE);
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Encodes a display objective frame.
+     *
+     * @param buffer The buffer to encode into.
+     * @param slot   The display slot of the objective.
+     * @return the buffer
+     */
+    private static ByteBuf display(final @Nonnull ByteBuf buffer, final @Nonnull ScoreboardDisplaySlot slot) {
+        writeVarInt(buffer, DISPLAY_ID);
+        buffer.writeByte(slot.ordinal());
+        writeString(buffer, ScoreboardNames.OBJECTIVE_NAME);
+
+        return buffer;
+    }
+
+    /**
+     * Encodes a score frame into a buffer of the exact size.
+     *
+     * @param allocator The allocator of the frame.
+     * @param index     The index of the line, used as the score.
+     * @param entry     The score entry of the line.
+     * @param action    The score action, {@link #SCORE_CHANGE} or {@link #SCORE_REMOVE}.
+     * @return the frame
+     */
+    private static ByteBuf score(final @Nonnull ByteBufAllocator allocator, final int index,
+                                 final @Nonnull String entry, final int action) {
+        return score(allocator.buffer(4 + sizeOf(entry) + sizeOf(ScoreboardNames.OBJECTIVE_NAME)),
+                index, entry, action);
+    }
+
+    /**
+     * Encodes a score frame.
+     *
+     * @param buffer The buffer to encode into.
+     * @param index  The index of the line, used as the score.
+     * @param entry  The score entry of the line.
+     * @param action The score action, {@link #SCORE_CHANGE} or {@link #SCORE_REMOVE}.
+     * @return the buffer
+     */
+    private static ByteBuf score(final @Nonnull ByteBuf buffer, final int index, final @Nonnull String entry,
+                                 final int action) {
+        writeVarInt(buffer, SCORE_ID);
+        writeString(buffer, entry);
+        writeVarInt(buffer, action);
+        writeString(buffer, ScoreboardNames.OBJECTIVE_NAME);
+
+        if (action != SCORE_REMOVE) {
+            writeVarInt(buffer, index);
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Returns the frame removing the score of an entry, shared if the entry is the default entry of its line.
+     *
+     * @param allocator The allocator of the frame.
+     * @param index     The index of the line.
+     * @param entry     The score entry of the line.
+     * @return the score REMOVE frame
+     */
+    private static ByteBuf scoreRemove(final @Nonnull ByteBufAllocator allocator, final int index,
+                                       final @Nonnull String entry) {
+        if (entry.equals(ScoreboardNames.entry(index))) {
+            return SCORE_REMOVES[index].duplicate();
+        }
+
+        return score(allocator, index, entry, SCORE_REMOVE);
+    }
+
+    /**
+     * Encodes a team frame into a buffer of the exact size.
+     *
+     * @param allocator The allocator of the frame.
+     * @param index     The index of the line.
+     * @param action    The action to perform on the team.
+     * @param prefix    The prefix of the line.
+     * @param suffix    The suffix of the line.
+     * @param entry     The score entry of the line, only sent on {@link ScoreboardAction#CREATE}.
+     * @return the frame
+     */
+    private static ByteBuf team(final @Nonnull ByteBufAllocator allocator, final int index,
+                                final @Nonnull ScoreboardAction action, final @Nonnull String prefix,
+                                final @Nonnull String suffix, final @Nonnull String entry) {
+        final int name = sizeOf(ScoreboardNames.teamName(index));
+        final int size = 2 + name + name + sizeOf(prefix) + sizeOf(suffix) + 2 + sizeOf(TEAM_VISIBILITY)
+                + 1 + sizeOf(entry);
+
+        return team(allocator.buffer(size), index, action, prefix, suffix, entry);
+    }
+
+    /**
+     * Encodes a team frame.
+     *
+     * @param buffer The buffer to encode into.
+     * @param index  The index of the line.
+     * @param action The action to perform on the team.
+     * @param prefix The prefix of the line, ignored on {@link ScoreboardAction#DELETE}.
+     * @param suffix The suffix of the line, ignored on {@link ScoreboardAction#DELETE}.
+     * @param entry  The score entry of the line, only sent on {@link ScoreboardAction#CREATE}.
+     * @return the buffer
+     */
+    private static ByteBuf team(final @Nonnull ByteBuf buffer, final int index, final @Nonnull ScoreboardAction action,
+                                final @Nonnull String prefix, final @Nonnull String suffix,
+                                final @Nonnull String entry) {
+        final String name = ScoreboardNames.teamName(index);
+
+        writeVarInt(buffer, TEAM_ID);
+        writeString(buffer, name);
+        buffer.writeByte(action.ordinal());
+
+        if (action != ScoreboardAction.DELETE) {
+            writeString(buffer, name);
+            writeString(buffer, prefix);
+            writeString(buffer, suffix);
+            buffer.writeByte(0);
+            writeString(buffer, TEAM_VISIBILITY);
+            buffer.writeByte(TEAM_COLOR);
+        }
+
+        if (action == ScoreboardAction.CREATE) {
+            writeVarInt(buffer, 1);
+            writeString(buffer, entry);
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Writes a VarInt.
+     *
+     * @param buffer The buffer to write into.
+     * @param value  The value to write.
+     */
+    private static void writeVarInt(final @Nonnull ByteBuf buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        buffer.writeByte(value);
+    }
+
+    /**
+     * Writes a string as its UTF-8 length followed by its UTF-8 bytes, like the server does.
+     * Unpaired surrogates are written as '?', like {@link String#getBytes(java.nio.charset.Charset)} would.
+     *
+     * @param buffer The buffer to write into.
+     * @param value  The string to write.
+     */
+    private static void writeString(final @Nonnull ByteBuf buffer, final @Nonnull String value) {
+        writeVarInt(buffer, utf8Length(value));
+
+        final int length = value.length();
+
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+
+            if (c < 0x80) {
+                buffer.writeByte(c);
+            } else if (c < 0x800) {
+                buffer.writeByte(0xC0 | (c >> 6));
+                buffer.writeByte(0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+
+                    buffer.writeByte(0xF0 | (codePoint >> 18));
+                    buffer.writeByte(0x80 | ((codePoint >> 12) & 0x3F));
+                    buffer.writeByte(0x80 | ((codePoint >> 6) & 0x3F));
+                    buffer.writeByte(0x80 | (codePoint & 0x3F));
+                } else {
+                    buffer.writeByte('?');
+                }
+            } else {
+                buffer.writeByte(0xE0 | (c >> 12));
+                buffer.writeByte(0x80 | ((c >> 6) & 0x3F));
+                buffer.writeByte(0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * Computes the size of an encoded string, its length prefix included.
+     *
+     * @param value The string to measure.
+     * @return the size of the string in bytes
+     */
+    private static int sizeOf(final @Nonnull String value) {
+        final int bytes = utf8Length(value);
+
+        return varIntSize(bytes) + bytes;
+    }
+
+    /**
+     * Computes the length of a string once encoded in UTF-8.
+     *
+     * @param value The string to measure.
+     * @return the length in bytes
+     */
+    private static int utf8Length(final @Nonnull String value) {
+        final int length = value.length();
+        int bytes = 0;
+
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    bytes += 4;
+                    i++;
+                } else {
+                    bytes++;
+                }
+            } else {
+                bytes += 3;
+            }
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Computes the size of an encoded VarInt.
+     *
+     * @param value The value to measure.
+     * @return the size of the VarInt in bytes
+     */
+    private static int varIntSize(final int value) {
+        return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
+}
@@ -0,0 +1,26 @@
+package ca.kaxx.board.transport;
+
+/**
+ * The slots in which an objective can be displayed.
+ * <p>
+ * The constants are in the order of the protocol, so that the ordinal of a slot is its id on the wire. They do not
+ * depend on the server internals, so that the rendering core and every transport can use them.
+ */
+public enum ScoreboardDisplaySlot {
+
+    /**
+     * The player list, next to the name of each player.
+     */
+    TAB_LIST,
+
+    /**
+     * The sidebar, on the right of the screen.
+     */
+    SCORE,
+
+    /**
+     * Below the name tag of each player.
+     */
+    PLAYER
+
+}
@@ -0,0 +1,65 @@
+package ca.kaxx.board.transport;
+
+import org.bukkit.ChatColor;
+
+/**
+ * The names shared by every board: the name of its objective, and the team name and score entry of each line.
+ * <p>
+ * They do not depend on the server internals, so that the rendering core and every transport can use them.
+ */
+public final class ScoreboardNames {
+
+    /**
+     * The name of the objective used by every board.
+     */
+    public static final String OBJECTIVE_NAME = "board";
+
+    /**
+     * The number of lines a board can display.
+     */
+    public static final int LINES = 15;
+
+    /**
+     * The team name of each line, indexed by line index.
+     */
+    private static final String[] TEAM_NAMES = new String[LINES];
+
+    /**
+     * The score entry of each line, indexed by line index.
+     */
+    private static final String[] ENTRIES = new String[LINES];
+
+    static {
+        final ChatColor[] colors = ChatColor.values();
+
+        for (int i = 0; i < LINES; i++) {
+            TEAM_NAMES[i] = Integer.toString(i);
+            ENTRIES[i] = colors[i].toString();
+        }
+    }
+
+    private ScoreboardNames() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    /**
+     * Returns the team name of a line.
+     *
+     * @param index the index of the line, between 0 and 14 (inclusive)
+     * @return the team name of the line
+     */
+    public static String teamName(final int index) {
+        return TEAM_NAMES[index];
+    }
+
+    /**
+     * Returns the score entry of a line.
+     *
+     * @param index the index of the line, between 0 and 14 (inclusive)
+     * @return the score entry of the line
+     */
+    public static String entry(final int index) {
+        return ENTRIES[index];
+    }
+
+}
@@ -0,0 +1,130 @@
+package ca.kaxx.board.transport;
+
+import io.netty.buffer.ByteBuf;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A change recorded by an {@link InMemoryScoreboardTransport}, which can be sent to any number of transports.
+ * <p>
+ * The transports receiving the operation through {@link ScoreboardTransport#send(ScoreboardOperation)} keep what they
+ * built for it, so that a packet or frame is only built once however many players receive it.
+ */
+@Getter
+public final class ScoreboardOperation {
+
+    /**
+     * The kind of change.
+     */
+    private final Type type;
+
+    /**
+     * The slot of the line, the score for {@link Type#SET_SCORE}, or -1 if the operation is about the objective.
+     */
+    private final int index;
+
+    /**
+     * The title of the objective, or the prefix of the line, or null if the operation does not have one.
+     */
+    private final String text;
+
+    /**
+     * The suffix of the line, or null if the operation does not have one.
+     */
+    private final String suffix;
+
+    /**
+     * The score entry of the line, or null if the operation does not have one.
+     */
+    private final String entry;
+
+    /**
+     * The display slot of the objective, or null if the operation is not a display.
+     */
+    private final ScoreboardDisplaySlot slot;
+
+    /**
+     * The packet built for this operation by an {@link NmsScoreboardTransport}, shared by every player receiving it.
+     */
+    @Getter(AccessLevel.NONE)
+    Object packet;
+
+    /**
+     * The frame encoded for this operation by a {@link RawScoreboardTransport}, shared by every player receiving it
+     * until the operation is {@link #release() released}.
+     */
+    @Getter(AccessLevel.NONE)
+    ByteBuf frame;
+
+    /**
+     * Creates an operation.
+     *
+     * @param type   the kind of change. Cannot be null.
+     * @param index  the slot of the line, the score for {@link Type#SET_SCORE}, or -1 if the operation is about the
+     *               objective.
+     * @param text   the title of the objective or the prefix of the line, or null.
+     * @param suffix the suffix of the line, or null.
+     * @param entry  the score entry of the line, or null.
+     * @param slot   the display slot of the objective, or null.
+     */
+    ScoreboardOperation(final @Nonnull Type type, final int index, final @Nullable String text,
+                        final @Nullable String suffix, final @Nullable String entry,
+                        final @Nullable ScoreboardDisplaySlot slot) {
+        this.type = type;
+        this.index = index;
+        this.text = text;
+        this.suffix = suffix;
+        this.entry = entry;
+        this.slot = slot;
+    }
+
+    /**
+     * Applies this operation to a transport.
+     *
+     * @param transport the transport receiving the change. Cannot be null.
+     */
+    public void apply(final @Nonnull ScoreboardTransport transport) {
+        switch (this.type) {
+            case CREATE_OBJECTIVE -> transport.createObjective(this.text);
+            case UPDATE_OBJECTIVE -> transport.updateObjective(this.text);
+            case REMOVE_OBJECTIVE -> transport.removeObjective();
+            case DISPLAY_OBJECTIVE -> transport.displayObjective(this.slot);
+            case SET_SCORE -> transport.setScore(this.index, this.entry);
+            case REMOVE_SCORE -> transport.removeScore(this.index, this.entry);
+            case CREATE_TEAM -> transport.createTeam(this.index, this.text, this.suffix, this.entry);
+            case UPDATE_TEAM -> transport.updateTeam(this.index, this.text, this.suffix);
+            case REMOVE_TEAM -> transport.removeTeam(this.index);
+        }
+    }
+
+    /**
+     * Releases the frame kept for this operation, once every player received it.
+     */
+    public void release() {
+        final ByteBuf frame = this.frame;
+
+        if (frame != null) {
+            this.frame = null;
+            frame.release();
+        }
+    }
+
+    /**
+     * The kinds of changes, one per method of {@link ScoreboardTransport}.
+     */
+    public enum Type {
+        CREATE_OBJECTIVE,
+        UPDATE_OBJECTIVE,
+        REMOVE_OBJECTIVE,
+        DISPLAY_OBJECTIVE,
+        SET_SCORE,
+        REMOVE_SCORE,
+        CREATE_TEAM,
+        UPDATE_TEAM,
+        REMOVE_TEAM
+    }
+
+}
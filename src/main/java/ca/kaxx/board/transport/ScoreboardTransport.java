@@ -0,0 +1,160 @@
+package ca.kaxx.board.transport;
+
+import ca.kaxx.board.metrics.ScoreboardMetrics;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Carries the changes of a {@link ca.kaxx.board.KaxxScoreboard} to the client.
+ * <p>
+ * The board only describes what changed, in terms of its objective, the score of each line and the team holding
+ * the content of each line, and the transport decides how it reaches the player. The objective is always named
+ * {@link ScoreboardNames#OBJECTIVE_NAME}, and the team of a slot is always named {@link ScoreboardNames#teamName(int)}.
+ * <p>
+ * A slot is the team and score entry holding the content of a line, while the score of its entry is the index of the
+ * line it is displayed on. They differ once lines have been moved by {@link ca.kaxx.board.KaxxScoreboard#setLines}.
+ * <p>
+ * A transport is used by a single thread at a time, like the board it belongs to.
+ *
+ * @see NmsScoreboardTransport
+ * @see RawScoreboardTransport
+ * @see InMemoryScoreboardTransport
+ */
+public interface ScoreboardTransport {
+
+    /**
+     * Starts a batch. Every change sent until the matching {@link #flush()} is held back and written at once.
+     * Batches can be nested, only the outermost flush writes to the player.
+     */
+    void begin();
+
+    /**
+     * Ends a batch. When the outermost batch ends, every pending change is written to the player.
+     */
+    void flush();
+
+    /**
+     * Checks if the player can still receive changes.
+     *
+     * @return true if the player is still connected, false otherwise
+     */
+    boolean isConnected();
+
+    /**
+     * Checks if the player can take more changes right now, that is if the outbound buffer of their channel is not
+     * saturated. While it is not, the update task does not render the scoreboard, so that the player receives the
+     * latest state in a single update once the channel drains instead of a burst of stale changes.
+     *
+     * @return true if changes can be sent, false otherwise
+     */
+    default boolean isWritable() {
+        return true;
+    }
+
+    /**
+     * Returns the bytes of the changes sent through this transport so far, before compression and framing.
+     *
+     * @return the number of bytes, or -1 if this transport cannot measure them
+     */
+    default long getSentBytes() {
+        return -1;
+    }
+
+    /**
+     * Sets whether the bytes sent through this transport must be counted by {@link #getSentBytes()} even while the
+     * metrics are disabled. The update task turns it on while the bytes of the scoreboards are limited.
+     * Transports which count their bytes for free may ignore it.
+     *
+     * @param countingBytes true to count the bytes, false to only count them while the metrics are enabled
+     */
+    default void setCountingBytes(final boolean countingBytes) {
+    }
+
+    /**
+     * Sets the metrics recording the packets sent through this transport.
+     *
+     * @param metrics the metrics, or null to stop recording
+     */
+    void setMetrics(final @Nullable ScoreboardMetrics metrics);
+
+    /**
+     * Creates the objective.
+     *
+     * @param title the title of the objective. Cannot be null.
+     */
+    void createObjective(final @Nonnull String title);
+
+    /**
+     * Changes the title of the objective.
+     *
+     * @param title the new title of the objective. Cannot be null.
+     */
+    void updateObjective(final @Nonnull String title);
+
+    /**
+     * Removes the objective, which also removes its scores and clears its display slot.
+     */
+    void removeObjective();
+
+    /**
+     * Displays the objective in a slot.
+     *
+     * @param slot the display slot. Cannot be null.
+     */
+    void displayObjective(final @Nonnull ScoreboardDisplaySlot slot);
+
+    /**
+     * Sets the score of an entry, which moves the line of the entry to the index of the score.
+     *
+     * @param score the score of the entry, which is the index of its line, between 0 and 14 (inclusive)
+     * @param entry the score entry of the line. Cannot be null.
+     */
+    void setScore(final int score, final @Nonnull String entry);
+
+    /**
+     * Removes the score of an entry.
+     *
+     * @param index the slot of the line, between 0 and 14 (inclusive)
+     * @param entry the score entry of the line. Cannot be null.
+     */
+    void removeScore(final int index, final @Nonnull String entry);
+
+    /**
+     * Creates the team of a line, holding its score entry.
+     *
+     * @param index  the slot of the line, between 0 and 14 (inclusive)
+     * @param prefix the prefix of the line. Cannot be null.
+     * @param suffix the suffix of the line. Cannot be null.
+     * @param entry  the score entry of the line. Cannot be null.
+     */
+    void createTeam(final int index, final @Nonnull String prefix, final @Nonnull String suffix,
+                    final @Nonnull String entry);
+
+    /**
+     * Changes the prefix and suffix of the team of a line.
+     *
+     * @param index  the slot of the line, between 0 and 14 (inclusive)
+     * @param prefix the prefix of the line. Cannot be null.
+     * @param suffix the suffix of the line. Cannot be null.
+     */
+    void updateTeam(final int index, final @Nonnull String prefix, final @Nonnull String suffix);
+
+    /**
+     * Removes the team of a line.
+     *
+     * @param index the slot of the line, between 0 and 14 (inclusive)
+     */
+    void removeTeam(final int index);
+
+    /**
+     * Sends an operation recorded by an {@link InMemoryScoreboardTransport}, for example the board of a group.
+     * Transports may keep what they built for the operation on it, so that it is shared by every player receiving it.
+     *
+     * @param operation the operation to send. Cannot be null.
+     */
+    default void send(final @Nonnull ScoreboardOperation operation) {
+        operation.apply(this);
+    }
+
+}
@@ -0,0 +1,21 @@
+package ca.kaxx.board.transport;
+
+import org.bukkit.entity.Player;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Creates the transport of the scoreboard of a player, for example {@code RawScoreboardTransport::of}.
+ */
+@FunctionalInterface
+public interface ScoreboardTransportFactory {
+
+    /**
+     * Creates the transport of the scoreboard of a player.
+     *
+     * @param player the player. Cannot be null.
+     * @return the created transport
+     */
+    ScoreboardTransport create(final @Nonnull Player player);
+
+}